@@ -0,0 +1,66 @@
+package com.demo.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.demo.domain.Person;
+import com.demo.util.AgeGenderIndex;
+
+/**
+ * The nested computeIfAbsent()/merge() grouping from BiMapsDemo against AgeGenderIndex.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BiMapBenchmark {
+
+	@Param({ "1000", "100000", "10000000", "100000000" })
+	int size;
+
+	List<Person> persons;
+
+	@Setup
+	public void setUp() {
+		persons = Datasets.persons(size);
+	}
+
+	@Benchmark
+	public Map<Integer, Map<String, List<Person>>> nestedMerge() {
+		Map<Integer, Map<String, List<Person>>> biMap = new HashMap<>();
+		persons.forEach(person -> biMap.computeIfAbsent(person.getAge(), HashMap::new)
+				.merge(person.getGender(), new ArrayList<>(Arrays.asList(person)), (l1, l2) -> {
+					l1.addAll(l2);
+					return l1;
+				}));
+		return biMap;
+	}
+
+	@Benchmark
+	public AgeGenderIndex ageGenderIndex() {
+		return AgeGenderIndex.of(persons.stream());
+	}
+
+	@Benchmark
+	public AgeGenderIndex ageGenderIndexParallel() {
+		return persons.parallelStream().collect(AgeGenderIndex.collector());
+	}
+}
@@ -0,0 +1,86 @@
+package com.demo.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.demo.domain.Person;
+import com.demo.util.IntCountMap;
+import com.demo.util.IntKeyCollectors;
+import com.demo.util.IntObjectMap;
+
+/**
+ * groupingBy(Person::getAge) and groupingBy(..., counting()) from CollectorsReductionDemo,
+ * sequential and parallel, against the unboxed IntKeyCollectors.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollectorsBenchmark {
+
+	@Param({ "1000", "100000", "10000000", "100000000" })
+	int size;
+
+	List<Person> persons;
+
+	@Setup
+	public void setUp() {
+		persons = Datasets.persons(size);
+	}
+
+	@Benchmark
+	public Map<Integer, List<Person>> groupingBy() {
+		return persons.stream().collect(Collectors.groupingBy(Person::getAge));
+	}
+
+	@Benchmark
+	public Map<Integer, List<Person>> groupingByParallel() {
+		return persons.parallelStream().collect(Collectors.groupingBy(Person::getAge));
+	}
+
+	@Benchmark
+	public Map<Integer, Long> groupingByCounting() {
+		return persons.stream().collect(Collectors.groupingBy(Person::getAge, Collectors.counting()));
+	}
+
+	@Benchmark
+	public Map<Integer, Long> groupingByCountingParallel() {
+		return persons.parallelStream().collect(Collectors.groupingBy(Person::getAge, Collectors.counting()));
+	}
+
+	@Benchmark
+	public IntObjectMap<List<Person>> groupingByInt() {
+		return persons.stream().collect(IntKeyCollectors.groupingByInt(Person::getAge));
+	}
+
+	@Benchmark
+	public IntObjectMap<List<Person>> groupingByIntParallel() {
+		return persons.parallelStream().collect(IntKeyCollectors.groupingByInt(Person::getAge));
+	}
+
+	@Benchmark
+	public IntCountMap countingByInt() {
+		return persons.stream().collect(IntKeyCollectors.countingByInt(Person::getAge));
+	}
+
+	@Benchmark
+	public IntCountMap countingByIntParallel() {
+		return persons.parallelStream().collect(IntKeyCollectors.countingByInt(Person::getAge));
+	}
+}
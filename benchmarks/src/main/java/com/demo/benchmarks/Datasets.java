@@ -0,0 +1,59 @@
+package com.demo.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import com.demo.domain.Person;
+
+/**
+ * Deterministic person datasets for the benchmarks, in memory or as a persons.txt style file.
+ *
+ * The same size always produces the same rows, so runs of different versions are comparable.
+ * */
+final class Datasets {
+
+	private static final String[] NAMES = { "Sarah", "Philip", "Beth", "Tulasi", "Simon", "Nina", "Allan", "Madan",
+			"Prakash", "Krishna", "Sudheer", "Venki", "Subbu", "Charles", "Ella", "Swaroopa", "Federer" };
+
+	private Datasets() {
+	}
+
+	static List<Person> persons(int size) {
+		SplittableRandom random = new SplittableRandom(size);
+		List<Person> persons = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			Person person = new Person(NAMES[random.nextInt(NAMES.length)] + random.nextInt(1000), random.nextInt(1, 100));
+			person.setGender(random.nextBoolean() ? "M" : "F");
+			persons.add(person);
+		}
+		return persons;
+	}
+
+	/** Writes the dataset to a temporary persons file, deleted when the JVM exits. */
+	static Path personsFile(int size) {
+		try {
+			Path file = Files.createTempFile("persons-" + size + "-", ".txt");
+			file.toFile().deleteOnExit();
+			SplittableRandom random = new SplittableRandom(size);
+			try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+				for (int i = 0; i < size; i++) {
+					writer.write(NAMES[random.nextInt(NAMES.length)]);
+					writer.write(Integer.toString(random.nextInt(1000)));
+					writer.write(' ');
+					writer.write(Integer.toString(random.nextInt(1, 100)));
+					writer.write(random.nextBoolean() ? " M\n" : " F\n");
+				}
+			}
+			return file;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package com.demo.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.demo.util.NestedIntList;
+
+/**
+ * flatMap(l -> l.stream()) over a List<List<Integer>> with sublists of uneven size, as in FlatMapDemo,
+ * against the same data in a NestedIntList.
+ * size is the total number of elements.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlatMapBenchmark {
+
+	@Param({ "1000", "100000", "10000000", "100000000" })
+	int size;
+
+	List<List<Integer>> lists;
+	NestedIntList nested;
+
+	@Setup
+	public void setUp() {
+		SplittableRandom random = new SplittableRandom(size);
+		lists = new ArrayList<>();
+		int remaining = size;
+		while (remaining > 0) {
+			int length = Math.min(remaining, 1 + random.nextInt(2000));
+			List<Integer> list = new ArrayList<>(length);
+			for (int i = 0; i < length; i++) {
+				list.add(random.nextInt(1000));
+			}
+			lists.add(list);
+			remaining -= length;
+		}
+		nested = NestedIntList.of(lists);
+	}
+
+	@Benchmark
+	public long flatMapSum() {
+		return lists.stream().flatMap(List::stream).mapToLong(Integer::longValue).sum();
+	}
+
+	@Benchmark
+	public long flatMapSumParallel() {
+		return lists.parallelStream().flatMap(List::stream).mapToLong(Integer::longValue).sum();
+	}
+
+	@Benchmark
+	public long flatMapFilterCount() {
+		return lists.stream().flatMap(List::stream).filter(i -> i % 2 == 0).count();
+	}
+
+	@Benchmark
+	public long flatMapFilterCountParallel() {
+		return lists.parallelStream().flatMap(List::stream).filter(i -> i % 2 == 0).count();
+	}
+
+	@Benchmark
+	public long nestedSum() {
+		return nested.sum();
+	}
+
+	@Benchmark
+	public long nestedStreamSumParallel() {
+		return nested.stream().parallel().asLongStream().sum();
+	}
+
+	@Benchmark
+	public long nestedFilterCount() {
+		return nested.stream().filter(i -> i % 2 == 0).count();
+	}
+
+	@Benchmark
+	public long nestedFilterCountParallel() {
+		return nested.stream().parallel().filter(i -> i % 2 == 0).count();
+	}
+}
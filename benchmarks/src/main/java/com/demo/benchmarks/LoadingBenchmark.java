@@ -0,0 +1,95 @@
+package com.demo.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.demo.domain.Person;
+import com.demo.table.PersonBinaryFormat;
+import com.demo.table.PersonTable;
+import com.demo.util.MappedPersonLoader;
+import com.demo.util.ParallelPersonLoader;
+
+/**
+ * Loading a persons file: the reader.lines() + split(" ") loop of PersonUtil.getPersons() (without
+ * the printing) against the mapped, parallel, columnar and binary loaders.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoadingBenchmark {
+
+	@Param({ "1000", "100000", "10000000", "100000000" })
+	int size;
+
+	Path textFile;
+	Path binaryFile;
+
+	@Setup
+	public void setUp() throws IOException {
+		textFile = Datasets.personsFile(size);
+		binaryFile = Files.createTempFile("persons-" + size + "-", ".bin");
+		PersonBinaryFormat.convert(textFile, binaryFile);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(textFile);
+		Files.deleteIfExists(binaryFile);
+	}
+
+	@Benchmark
+	public List<Person> bufferedReaderSplit() throws IOException {
+		List<Person> persons = new ArrayList<>();
+		try (BufferedReader reader = Files.newBufferedReader(textFile); Stream<String> stream = reader.lines()) {
+			stream.forEach(line -> {
+				String[] s = line.split(" ");
+				Person p = new Person(s[0].trim(), Integer.parseInt(s[1]));
+				p.setGender(s[2].trim());
+				persons.add(p);
+			});
+		}
+		return persons;
+	}
+
+	@Benchmark
+	public List<Person> mapped() throws IOException {
+		return MappedPersonLoader.load(textFile);
+	}
+
+	@Benchmark
+	public List<Person> mappedParallel() throws IOException {
+		return ParallelPersonLoader.load(textFile);
+	}
+
+	@Benchmark
+	public PersonTable columnar() throws IOException {
+		return PersonTable.load(textFile);
+	}
+
+	@Benchmark
+	public PersonTable binary() throws IOException {
+		return PersonBinaryFormat.read(binaryFile);
+	}
+}
@@ -0,0 +1,83 @@
+package com.demo.benchmarks;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.demo.util.NumericReductions;
+import com.demo.util.NumericSummary;
+
+/**
+ * Boxed reduce(0, Integer::sum) and reduce(Integer::max) from ReductionDemo against the unboxed
+ * NumericReductions, sequential and parallel.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReductionBenchmark {
+
+	@Param({ "1000", "100000", "10000000", "100000000" })
+	int size;
+
+	int[] values;
+	List<Integer> boxed;
+
+	@Setup
+	public void setUp() {
+		values = new SplittableRandom(size).ints(size, 0, 1000).toArray();
+		boxed = Arrays.stream(values).boxed().collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public int boxedSum() {
+		return boxed.stream().reduce(0, Integer::sum);
+	}
+
+	@Benchmark
+	public int boxedSumParallel() {
+		return boxed.parallelStream().reduce(0, Integer::sum);
+	}
+
+	@Benchmark
+	public Optional<Integer> boxedMax() {
+		return boxed.stream().reduce(Integer::max);
+	}
+
+	@Benchmark
+	public Optional<Integer> boxedMaxParallel() {
+		return boxed.parallelStream().reduce(Integer::max);
+	}
+
+	@Benchmark
+	public long primitiveSum() {
+		return NumericReductions.sum(values);
+	}
+
+	@Benchmark
+	public long primitiveSumParallel() {
+		return NumericReductions.parallelSum(values);
+	}
+
+	@Benchmark
+	public NumericSummary summarizeParallel() {
+		return NumericReductions.parallelSummarize(values);
+	}
+}
@@ -0,0 +1,68 @@
+package com.demo.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.demo.domain.Person;
+import com.demo.util.KeySort;
+
+/**
+ * The comparing(Person::getName).thenComparing(Person::getAge) sort from ComparatorsDemo, against
+ * KeySort with the same key chain.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SortBenchmark {
+
+	private static final KeySort<Person> KEY_SORT = KeySort.<Person>comparing(Person::getName)
+			.thenComparingInt(Person::getAge);
+
+	private static final Comparator<Person> COMPARATOR = Comparator.comparing(Person::getName)
+			.thenComparing(Person::getAge);
+
+	@Param({ "1000", "100000", "10000000", "100000000" })
+	int size;
+
+	List<Person> persons;
+
+	@Setup
+	public void setUp() {
+		persons = Datasets.persons(size);
+	}
+
+	@Benchmark
+	public List<Person> listSort() {
+		List<Person> copy = new ArrayList<>(persons);
+		copy.sort(COMPARATOR);
+		return copy;
+	}
+
+	@Benchmark
+	public List<Person> parallelStreamSorted() {
+		return persons.parallelStream().sorted(COMPARATOR).collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public List<Person> keySort() {
+		return KEY_SORT.sorted(persons);
+	}
+}
@@ -8,6 +8,7 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 import com.demo.domain.Person;
+import com.demo.util.AgeGenderIndex;
 import com.demo.util.PersonUtil;
 
 public class BiMapsDemo {
@@ -31,5 +32,11 @@ public class BiMapsDemo {
 		System.out.println("BiMap ....");
 		biMap.forEach((age,m) -> System.out.println(age + " -> " + m));
 		
+		//Same grouping in one pass without a throwaway list per person
+		AgeGenderIndex index = AgeGenderIndex.of(persons.stream());
+		System.out.println("AgeGenderIndex ....");
+		index.forEach((age,gender,list) -> System.out.println(age + " " + gender + " -> " + list));
+		System.out.println("Persons of age 23 and gender F " + index.get(23, "F"));
+		
 		}
 }
@@ -10,6 +10,7 @@ import java.util.stream.Stream;
 
 import com.demo.domain.Person;
 import com.demo.streams.CollectorsReductionDemo;
+import com.demo.util.KeySort;
 
 /**
  * New methods on Comparator
@@ -33,6 +34,10 @@ import com.demo.streams.CollectorsReductionDemo;
  *  Comparator<Person> comparator = Comparator.nullsFirst(Comparator.naturalOrder());
  * 
  * Note: nullsLast() method is also available which does the opposite of nullsFirst() method.
+ * 
+ * Note: comparing(Person::getName).thenComparing(Person::getAge) calls both getters and boxes the age
+ * on every comparison. com.demo.util.KeySort takes the same chain of key extractors, extracts the keys
+ * once per element and sorts in parallel.
  *  
  * */
 public class ComparatorsDemo {
@@ -44,6 +49,12 @@ public class ComparatorsDemo {
 		System.out.println("Persons sorted by name : ////////////////");
 		persons.forEach(System.out::println);
 		
+		//Same order, but the keys are extracted once per person instead of on every comparison
+		KeySort<Person> keySort = KeySort.<Person>comparing(Person::getName).thenComparingInt(Person::getAge);
+		List<Person> sortedPersons = keySort.sorted(getPersons());
+		System.out.println("Persons sorted by name with KeySort : ////////////////");
+		sortedPersons.forEach(System.out::println);
+		
 	}
 
 	public static List<Person> getPersons(){
@@ -1,11 +1,13 @@
 package com.demo.collections;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 import com.demo.domain.Person;
+import com.demo.util.ConcurrentIntGroupingMap;
 import com.demo.util.PersonUtil;
 
 /**
@@ -98,6 +100,15 @@ public class MapsDemo {
 		
 		System.out.println("mapByAge merged ");
 		mapByAge.forEach((k,v) -> System.out.println(k + " " + v));
+		
+		//Both partitions appended concurrently into one map, no merge step needed
+		ConcurrentIntGroupingMap<Person> concurrentByAge = new ConcurrentIntGroupingMap<>(Person::getAge);
+		Arrays.asList(persons.subList(1, 10), persons.subList(10, persons.size()))
+				.parallelStream()
+				.forEach(concurrentByAge::addAll);
+		
+		System.out.println("concurrentByAge snapshot ");
+		concurrentByAge.snapshot().forEach((k,v) -> System.out.println(k + " " + v));
 	}
 	
 	private static Map<Integer, List<Person>> mapByAge(List<Person> persons) {
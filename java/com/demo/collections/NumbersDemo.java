@@ -2,8 +2,11 @@ package com.demo.collections;
 
 import java.util.Optional;
 import java.util.function.BinaryOperator;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
+import com.demo.util.NumericReductions;
+
 /**
  * aggregation methods like min,max,sum are added to many of the wrapper like Integer, Long etc.
  * For ex:
@@ -12,6 +15,9 @@ import java.util.stream.Stream;
  * 
  * BinaryOperator<Long> sum = Long::sum;
  * 
+ * Note: reducing a Stream<Long> boxes every partial result. com.demo.util.NumericReductions reduces
+ * long[], int[] and primitive streams without boxing.
+ * 
  * */
 public class NumbersDemo {
 
@@ -26,6 +32,10 @@ public class NumbersDemo {
 		Optional<Long> result = stream.reduce(sum);
 		System.out.println("sum is " + result.get());
 		
+		//The same reduction over primitive longs, without boxing every partial sum
+		long unboxedSum = NumericReductions.summarize(LongStream.of(10L,20L,30L,40L)).sum();
+		System.out.println("unboxed sum is " + unboxedSum);
+		
 		
 		
 	}
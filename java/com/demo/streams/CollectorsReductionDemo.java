@@ -14,6 +14,8 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import com.demo.domain.Person;
+import com.demo.util.IntCountMap;
+import com.demo.util.IntKeyCollectors;
 
 /**
  * There is another type of reduction called Collectors. This is 
@@ -52,6 +54,9 @@ import com.demo.domain.Person;
  * 													Collectors.counting());
  * Collectors.counting() is just the no of persons of each age.
  * 
+ * Note: groupingBy(Person::getAge) boxes every age into an Integer. com.demo.util.IntKeyCollectors
+ * has the same groupings for int keys which keep the keys (and the counts) primitive.
+ * 
  * 
  * */
 public class CollectorsReductionDemo {
@@ -113,6 +118,12 @@ public class CollectorsReductionDemo {
 			));
 		personNamesByAgeSorted.forEach((k,v) -> System.out.println(" Names of People with Age in sorted order " + k + " are" + v));
 
+		//No of people by Age without boxing the ages into Integer and the counts into Long
+		IntCountMap countsByAge = persons.stream().collect(
+				IntKeyCollectors.countingByInt(Person::getAge)
+			);
+		countsByAge.forEach((k,v) -> System.out.println(" No of People with Age (unboxed) " + k + " are" + v));
+
 	}
 
 }
@@ -5,6 +5,8 @@ import java.util.List;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
+import com.demo.util.NestedIntList;
+
 /**
   * mapper(or simply Map) is a functional interface which takes one object argument and returns another object.
   * 
@@ -57,6 +59,13 @@ public class FlatMapDemo {
 		.flatMap(mapper)
 		.forEach(System.out::println);
 		
+		//flatMap creates a stream per sublist and boxes every Integer.
+		//NestedIntList keeps all the ints in one array, so the flattened stream is a plain IntStream
+		//that splits evenly in parallel, and sums and filters don't create anything per sublist.
+		NestedIntList nested = NestedIntList.of(list);
+		System.out.println(nested.stream().parallel().sum());
+		System.out.println(nested.filter(i -> i % 2 == 0));
+		
 		
 	}
 
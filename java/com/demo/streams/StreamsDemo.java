@@ -2,6 +2,8 @@ package com.demo.streams;
 
 import java.util.function.Predicate;
 import java.util.stream.Stream;
+
+import com.demo.util.PredicateBuilder;
 /**
  * A Stream is an object on which we can define operations like map, filter, reduce etc.
  * Stream does not hold any data. This is the big difference with collection, which holds data.
@@ -40,6 +42,16 @@ public class StreamsDemo {
 		stream.filter(p1.and(p2.or(p3)))
 				.forEach(System.out::println);
 		
+		/*PredicateBuilder compiles the same expression into a flat predicate, the two isEqual()
+		 * checks become a single set lookup */
+		Predicate<String> compiled = PredicateBuilder.<String>of(s -> s.length() > 2)
+				.and(PredicateBuilder.<String>isEqual("two").or(PredicateBuilder.isEqual("three")))
+				.build();
+		
+		System.out.println("......Filtered list with compiled predicate......");
+		Stream.of("one","two","three","four","five")
+				.filter(compiled)
+				.forEach(System.out::println);
 
 	}
 
@@ -6,9 +6,14 @@ import java.io.InputStreamReader;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Map;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import com.demo.streams.CollectorsReductionDemo;
+import com.demo.util.LineScanner;
+import com.demo.util.LineSearch;
+import com.demo.util.LineSpliterator;
 
 public class ReadingFiles {
 
@@ -37,6 +42,30 @@ public class ReadingFiles {
 		}catch(IOException ie) {
 			System.out.println(ie);
 		}
+		
+		//Files.lines() sets up a decoder and a line stream to read a few bytes.
+		//LineScanner reads only the blocks it needs with positional FileChannel reads.
+		try{
+			LineScanner.firstNonEmpty(path).ifPresent(System.out::println);
+			//last N lines read backwards from the end of the file, without reading the rest of it
+			LineScanner.lastLines(path, 3).forEach(System.out::println);
+			//filtering on a literal without decoding every line: the mapped bytes are searched in parallel
+			//and only the matching lines become Strings
+			LineSearch.literal("Sarah").lines(path).forEach(System.out::println);
+		}catch(IOException ie) {
+			System.out.println(ie);
+		}
+		
+		//Files.lines(path).parallel() splits off batches of lines one thread already read.
+		//parallelLines splits the file by byte range at line starts, so every thread reads its own part.
+		try(Stream<String> lines = LineSpliterator.parallelLines(path)){
+			Map<String, Long> countsByGender = lines.filter(line -> !line.isEmpty())
+													 .map(line -> line.split(" ")[2])
+													 .collect(Collectors.groupingBy(g -> g, Collectors.counting()));
+			System.out.println(countsByGender);
+		}catch(IOException ie) {
+			System.out.println(ie);
+		}
 
 	}
 
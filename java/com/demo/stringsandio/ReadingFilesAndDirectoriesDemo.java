@@ -9,6 +9,8 @@ import java.nio.file.Paths;
 import java.util.stream.Stream;
 
 import com.demo.streams.CollectorsReductionDemo;
+import com.demo.util.DirectoryIndex;
+import com.demo.util.DirectoryWalker;
 
 public class ReadingFilesAndDirectoriesDemo {
 
@@ -69,6 +71,28 @@ public class ReadingFilesAndDirectoriesDemo {
 		}catch(IOException ioe) {
 			System.out.println(ioe);
 		}
+		
+		//p.toFile().isDirectory() creates a File and stats every entry again after Files.walk() already read its attributes.
+		//DirectoryWalker reads the attributes once per entry, filters on them and walks the subtrees in parallel.
+		//The paths come back in no particular order, after the whole tree has been walked.
+		try{
+			DirectoryWalker.of(dirPath).maxDepth(3)
+						   .filter((p, attributes) -> attributes.isDirectory())
+						   .toList()
+						   .forEach(System.out::println);
+		}catch(IOException ioe) {
+			System.out.println(ioe);
+		}
+		
+		//When the same tree is listed over and over, DirectoryIndex scans it once and keeps it up to date
+		//from WatchService events, so the listings below are answered from memory.
+		try(DirectoryIndex index = DirectoryIndex.build(dirPath)){
+			index.list(dirPath, (p, attributes) -> attributes.isDirectory()).forEach(System.out::println);
+			index.find((p, attributes) -> attributes.isDirectory()).forEach(System.out::println);
+			System.out.println("hits " + index.hits() + ", refreshes " + index.refreshes());
+		}catch(IOException ioe) {
+			System.out.println(ioe);
+		}
 	}
 
 }
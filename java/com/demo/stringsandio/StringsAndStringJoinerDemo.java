@@ -1,8 +1,14 @@
 package com.demo.stringsandio;
 
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.Arrays;
 import java.util.StringJoiner;
 import java.util.stream.IntStream;
 
+import com.demo.util.StreamingJoiner;
+import com.demo.util.TextTransforms;
+
 
 
 public class StringsAndStringJoinerDemo {
@@ -16,6 +22,9 @@ public class StringsAndStringJoinerDemo {
 				.map(Character::toUpperCase)
 				.forEach(System.out::print);
 		System.out.println();
+		//The above boxes every char and prints them one by one.
+		//TextTransforms maps the chars in one pass without boxing, and returns the same String when nothing changes.
+		System.out.println(TextTransforms.toUpperCase(greeting));
 		
 		//StringJoiner is built with or without a separator
 		StringJoiner sj = new StringJoiner(", ");
@@ -39,6 +48,20 @@ public class StringsAndStringJoinerDemo {
 		String joinedString = String.join(",", numbers);
 		System.out.println("Joined String with iterable is " + joinedString);
 		
+		//StringJoiner and Collectors.joining() build the whole result in memory.
+		//StreamingJoiner writes the prefix, elements, separators and suffix straight to a Writer, an Appendable or a channel.
+		Writer out = new PrintWriter(System.out);
+		StreamingJoiner joiner = StreamingJoiner.to(out, ", ", "{", "}", 0);
+		//forEachOrdered keeps the order and calls add() one element at a time, also for a parallel stream
+		Arrays.stream(numbers).forEachOrdered(joiner::add);
+		joiner.close();
+		System.out.println();
+		System.out.println("Streamed " + joiner.length() + " chars");
+		//the collector joins in memory and writes once the stream is done
+		long length = Arrays.stream(numbers).parallel().collect(StreamingJoiner.joining(out, ", ", "{", "}"));
+		System.out.println();
+		System.out.println("Collected " + length + " chars");
+		
 	}
 
 }
@@ -0,0 +1,307 @@
+package com.demo.table;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32C;
+
+import com.demo.domain.Person;
+
+/**
+ * Versioned binary file format for person records, so a process can load a dataset without
+ * tokenizing persons.txt again.
+ *
+ * Layout (little endian):
+ *
+ * 		header		magic "PRSN" (int), version (short), flags (short), row count (int),
+ * 					dictionary size (int), string table size in bytes (int), CRC32C (int) of the header fields
+ * 					before it and everything after the header
+ * 		strings		dictionary size + 1 offsets (int), followed by the UTF-8 bytes of all distinct names
+ * 		nameIds		row count * int
+ * 		ages		row count * int
+ * 		genders		row count * byte ('M', 'F' or 0)
+ *
+ * All columns are fixed width, so the reader only copies them into arrays with bulk gets; nothing is
+ * parsed except the distinct names. The result is a PersonTable, which can be used as it is or turned
+ * into Person objects with stream().
+ *
+ * The reader checks the header against the file length before it allocates anything, and always checks
+ * the dictionary offsets, name ids, ages and genders, so a damaged file fails with an IOException even
+ * without verify. Version 1 files, whose checksum doesn't cover the header, can still be read.
+ *
+ * 		PersonBinaryFormat.convert(Paths.get("persons.txt"), Paths.get("persons.bin"));
+ * 		PersonTable table = PersonBinaryFormat.read(Paths.get("persons.bin"));
+ * */
+public final class PersonBinaryFormat {
+
+	public static final int MAGIC = 0x4E535250; // "PRSN" in little endian
+	public static final short VERSION = 2;
+	static final int HEADER_SIZE = 24;
+	/** The header bytes in front of the checksum field. */
+	private static final int HEADER_FIELDS_SIZE = HEADER_SIZE - Integer.BYTES;
+
+	private static final int BUFFER_SIZE = 1 << 20;
+
+	private PersonBinaryFormat() {
+	}
+
+	/** Converts a persons text file into the binary format. */
+	public static void convert(Path textFile, Path binaryFile) throws IOException {
+		write(PersonTable.load(textFile), binaryFile);
+	}
+
+	public static void write(PersonTable table, Path file) throws IOException {
+		String[] dictionary = table.dictionary();
+		byte[][] names = new byte[dictionary.length][];
+		int stringBytes = 0;
+		for (int i = 0; i < dictionary.length; i++) {
+			names[i] = dictionary[i].getBytes(StandardCharsets.UTF_8);
+			stringBytes += names[i].length;
+		}
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			int size = table.size();
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putInt(size).putInt(dictionary.length)
+					.putInt(stringBytes);
+			Output out = new Output(channel, HEADER_SIZE);
+			out.checksum.update(header.array(), 0, HEADER_FIELDS_SIZE);
+			int offset = 0;
+			out.putInt(offset);
+			for (byte[] name : names) {
+				offset += name.length;
+				out.putInt(offset);
+			}
+			for (byte[] name : names) {
+				out.put(name, 0, name.length);
+			}
+			int[] nameIds = table.nameIdColumn();
+			for (int row = 0; row < size; row++) {
+				out.putInt(nameIds[row]);
+			}
+			int[] ages = table.ageColumn();
+			for (int row = 0; row < size; row++) {
+				out.putInt(ages[row]);
+			}
+			out.put(table.genderColumn(), 0, size);
+			out.flush();
+
+			header.putInt((int) out.checksum.getValue());
+			header.flip();
+			while (header.hasRemaining()) {
+				channel.write(header, header.position());
+			}
+		}
+	}
+
+	public static PersonTable read(Path file) throws IOException {
+		return read(file, true);
+	}
+
+	/**
+	 * Reads a binary persons file. With verify set to false the checksum is not computed, which
+	 * saves one pass over the data when the file is trusted.
+	 * */
+	public static PersonTable read(Path file, boolean verify) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			readFully(channel, header, 0);
+			header.flip();
+			if (header.getInt() != MAGIC) {
+				throw new IOException("Not a persons binary file: " + file);
+			}
+			short version = header.getShort();
+			if (version != VERSION && version != 1) {
+				throw new IOException("Unsupported persons file version " + version + ": " + file);
+			}
+			header.getShort();
+			int size = header.getInt();
+			int dictionarySize = header.getInt();
+			int stringBytes = header.getInt();
+			int checksum = header.getInt();
+			if (size < 0 || dictionarySize < 0 || stringBytes < 0) {
+				throw new IOException("Corrupt persons file header: " + file);
+			}
+			long expectedLength = HEADER_SIZE + (dictionarySize + 1L) * Integer.BYTES + stringBytes
+					+ size * (2L * Integer.BYTES + 1);
+			if (expectedLength != channel.size()) {
+				throw new IOException("Corrupt persons file header: " + file + " should be " + expectedLength
+						+ " bytes long but is " + channel.size());
+			}
+
+			Input in = new Input(channel, HEADER_SIZE, verify);
+			if (version != 1) {
+				in.checksum.update(header.array(), 0, HEADER_FIELDS_SIZE);
+			}
+			int[] offsets = new int[dictionarySize + 1];
+			in.getInts(offsets, offsets.length);
+			if (offsets[0] != 0 || offsets[dictionarySize] != stringBytes) {
+				throw corrupt(file);
+			}
+			for (int i = 0; i < dictionarySize; i++) {
+				if (offsets[i + 1] < offsets[i]) {
+					throw corrupt(file);
+				}
+			}
+			byte[] strings = new byte[stringBytes];
+			in.get(strings, stringBytes);
+			String[] dictionary = new String[dictionarySize];
+			for (int i = 0; i < dictionarySize; i++) {
+				dictionary[i] = new String(strings, offsets[i], offsets[i + 1] - offsets[i], StandardCharsets.UTF_8);
+			}
+			int[] nameIds = new int[size];
+			in.getInts(nameIds, size);
+			for (int row = 0; row < size; row++) {
+				if (nameIds[row] < 0 || nameIds[row] >= dictionarySize) {
+					throw corrupt(file);
+				}
+			}
+			int[] ages = new int[size];
+			in.getInts(ages, size);
+			for (int row = 0; row < size; row++) {
+				if (ages[row] < 0 || ages[row] > PersonTable.MAX_AGE) {
+					throw corrupt(file);
+				}
+			}
+			byte[] genders = new byte[size];
+			in.get(genders, size);
+			for (int row = 0; row < size; row++) {
+				if (genders[row] < 0) {
+					throw corrupt(file);
+				}
+			}
+
+			if (verify && (int) in.checksum.getValue() != checksum) {
+				throw new IOException("Checksum mismatch in persons file: " + file);
+			}
+			return new PersonTable(dictionary, nameIds, ages, genders, size);
+		}
+	}
+
+	/** Reads a binary persons file as Person objects. */
+	public static List<Person> readPersons(Path file) throws IOException {
+		return read(file).stream().collect(Collectors.toList());
+	}
+
+	private static IOException corrupt(Path file) {
+		return new IOException("Corrupt persons file: " + file);
+	}
+
+	private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			int read = channel.read(buffer, position);
+			if (read < 0) {
+				throw new IOException("Unexpected end of persons file");
+			}
+			position += read;
+		}
+	}
+
+	/** Buffered positional writer that keeps a running checksum. */
+	private static final class Output {
+
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		private final CRC32C checksum = new CRC32C();
+		private long position;
+
+		Output(FileChannel channel, long position) {
+			this.channel = channel;
+			this.position = position;
+		}
+
+		void putInt(int value) throws IOException {
+			if (buffer.remaining() < Integer.BYTES) {
+				flush();
+			}
+			buffer.putInt(value);
+		}
+
+		void put(byte[] bytes, int offset, int length) throws IOException {
+			while (length > 0) {
+				if (!buffer.hasRemaining()) {
+					flush();
+				}
+				int n = Math.min(length, buffer.remaining());
+				buffer.put(bytes, offset, n);
+				offset += n;
+				length -= n;
+			}
+		}
+
+		void flush() throws IOException {
+			buffer.flip();
+			checksum.update(buffer.duplicate());
+			while (buffer.hasRemaining()) {
+				position += channel.write(buffer, position);
+			}
+			buffer.clear();
+		}
+	}
+
+	/** Buffered positional reader that optionally keeps a running checksum. */
+	private static final class Input {
+
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		private final CRC32C checksum = new CRC32C();
+		private final boolean verify;
+		private long position;
+
+		Input(FileChannel channel, long position, boolean verify) {
+			this.channel = channel;
+			this.position = position;
+			this.verify = verify;
+			buffer.limit(0);
+		}
+
+		void getInts(int[] target, int length) throws IOException {
+			int offset = 0;
+			while (offset < length) {
+				if (buffer.remaining() < Integer.BYTES) {
+					fill();
+				}
+				int n = Math.min(length - offset, buffer.remaining() / Integer.BYTES);
+				buffer.asIntBuffer().get(target, offset, n);
+				buffer.position(buffer.position() + n * Integer.BYTES);
+				offset += n;
+			}
+		}
+
+		void get(byte[] target, int length) throws IOException {
+			int offset = 0;
+			while (offset < length) {
+				if (!buffer.hasRemaining()) {
+					fill();
+				}
+				int n = Math.min(length - offset, buffer.remaining());
+				buffer.get(target, offset, n);
+				offset += n;
+			}
+		}
+
+		private void fill() throws IOException {
+			buffer.compact();
+			int start = buffer.position();
+			int read = channel.read(buffer, position);
+			if (read <= 0) {
+				throw new IOException("Unexpected end of persons file");
+			}
+			position += read;
+			if (verify) {
+				ByteBuffer added = buffer.duplicate();
+				added.flip();
+				added.position(start);
+				checksum.update(added);
+			}
+			buffer.flip();
+		}
+	}
+}
@@ -0,0 +1,120 @@
+package com.demo.table;
+
+import java.util.stream.Stream;
+
+import com.demo.domain.Person;
+
+/**
+ * Bitmap indexes on the gender and age columns of a PersonTable, built once in a single scan.
+ *
+ * 		PersonBitmapIndex index = PersonBitmapIndex.build(table, 5);
+ * 		RowBitmap rows = index.gender("F").and(index.ageBetween(20, 30));
+ * 		int count = rows.cardinality();				//no Person is created
+ * 		index.persons(rows).forEach(...);			//Persons created lazily from the selection
+ *
+ * Ages are indexed in buckets of bucketWidth years. An age range ORs the buckets it fully covers and
+ * filters the rows of the (at most two) buckets it only partly covers against the age column, so the
+ * result is always exact. A width of 1 gives one bitmap per age and never needs the filter.
+ * */
+public final class PersonBitmapIndex {
+
+	private final PersonTable table;
+	private final int bucketWidth;
+	private final RowBitmap[] genders;
+	private final RowBitmap[] ageBuckets;
+
+	private PersonBitmapIndex(PersonTable table, int bucketWidth, RowBitmap[] genders, RowBitmap[] ageBuckets) {
+		this.table = table;
+		this.bucketWidth = bucketWidth;
+		this.genders = genders;
+		this.ageBuckets = ageBuckets;
+	}
+
+	public static PersonBitmapIndex build(PersonTable table) {
+		return build(table, 1);
+	}
+
+	public static PersonBitmapIndex build(PersonTable table, int bucketWidth) {
+		if (bucketWidth < 1) {
+			throw new IllegalArgumentException("bucketWidth must be positive: " + bucketWidth);
+		}
+		int size = table.size();
+		int[] ages = table.ageColumn();
+		byte[] genderCodes = table.genderColumn();
+		int buckets = size == 0 ? 0 : table.maxAge() / bucketWidth + 1;
+
+		RowBitmap.Builder[] genderBuilders = new RowBitmap.Builder[128];
+		RowBitmap.Builder[] ageBuilders = new RowBitmap.Builder[buckets];
+		for (int row = 0; row < size; row++) {
+			int gender = genderCodes[row] & 0x7f;
+			if (genderBuilders[gender] == null) {
+				genderBuilders[gender] = new RowBitmap.Builder();
+			}
+			genderBuilders[gender].add(row);
+			int bucket = ages[row] / bucketWidth;
+			if (ageBuilders[bucket] == null) {
+				ageBuilders[bucket] = new RowBitmap.Builder();
+			}
+			ageBuilders[bucket].add(row);
+		}
+		return new PersonBitmapIndex(table, bucketWidth, build(genderBuilders), build(ageBuilders));
+	}
+
+	private static RowBitmap[] build(RowBitmap.Builder[] builders) {
+		RowBitmap[] bitmaps = new RowBitmap[builders.length];
+		for (int i = 0; i < builders.length; i++) {
+			bitmaps[i] = builders[i] == null ? RowBitmap.empty() : builders[i].build();
+		}
+		return bitmaps;
+	}
+
+	public PersonTable table() {
+		return table;
+	}
+
+	/** Rows with the given gender, null meaning unknown. */
+	public RowBitmap gender(String gender) {
+		return genders[PersonTable.genderCode(gender) & 0x7f];
+	}
+
+	public RowBitmap age(int age) {
+		return ageBetween(age, age);
+	}
+
+	/** Rows with minAge <= age <= maxAge. */
+	public RowBitmap ageBetween(int minAge, int maxAge) {
+		minAge = Math.max(0, minAge);
+		maxAge = (int) Math.min(maxAge, (long) ageBuckets.length * bucketWidth - 1);
+		if (minAge > maxAge) {
+			return RowBitmap.empty();
+		}
+		int first = minAge / bucketWidth;
+		int last = maxAge / bucketWidth;
+		RowBitmap[] selected = new RowBitmap[last - first + 1];
+		for (int bucket = first; bucket <= last; bucket++) {
+			RowBitmap rows = ageBuckets[bucket];
+			long bucketStart = (long) bucket * bucketWidth;
+			long bucketEnd = bucketStart + bucketWidth - 1;
+			if (bucketStart < minAge || bucketEnd > maxAge) {
+				int from = minAge;
+				int to = maxAge;
+				rows = rows.filter(row -> {
+					int age = table.age(row);
+					return age >= from && age <= to;
+				});
+			}
+			selected[bucket - first] = rows;
+		}
+		return selected.length == 1 ? selected[0] : RowBitmap.or(selected);
+	}
+
+	/** Counts the rows with the given gender and age range without materializing them. */
+	public int count(String gender, int minAge, int maxAge) {
+		return gender(gender).and(ageBetween(minAge, maxAge)).cardinality();
+	}
+
+	/** The selected rows as Person objects, created lazily. */
+	public Stream<Person> persons(RowBitmap rows) {
+		return rows.stream().mapToObj(table::person);
+	}
+}
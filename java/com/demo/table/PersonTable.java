@@ -0,0 +1,428 @@
+package com.demo.table;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import com.demo.domain.Person;
+import com.demo.util.AgeIndex;
+import com.demo.util.ParallelPersonLoader;
+import com.demo.util.PersonRecordParser;
+
+/**
+ * Columnar (struct of arrays) storage for persons, as an alternative to List<Person>.
+ *
+ * Every row is stored in three columns:
+ * 		nameIds	int[]	index into a dictionary of distinct names
+ * 		ages	int[]
+ * 		genders	byte[]	'M', 'F' or 0 when unknown
+ *
+ * So a row costs 9 bytes instead of a Person object, its reference and a gender String, and a scan
+ * over the ages is a sequential walk over one int[] that stays in cache. Ages must be between 0 and
+ * MAX_AGE, which lets the group APIs index arrays by age without one outlier making them huge.
+ *
+ * 		PersonTable table = PersonTable.load(path);
+ * 		int[] rows = table.select(age -> age > 20);
+ * 		table.stream(rows).map(Person::getName).forEach(...);
+ *
+ * stream() adapts the table back to Stream<Person>, creating the Person objects lazily, so code
+ * written against List<Person> keeps working.
+ * */
+public final class PersonTable {
+
+	/** Largest age a table accepts, the same bound as AgeIndex. */
+	public static final int MAX_AGE = AgeIndex.MAX_AGE;
+
+	private final String[] dictionary;
+	private final int[] nameIds;
+	private final int[] ages;
+	private final byte[] genders;
+	private final int size;
+
+	PersonTable(String[] dictionary, int[] nameIds, int[] ages, byte[] genders, int size) {
+		this.dictionary = dictionary;
+		this.nameIds = nameIds;
+		this.ages = ages;
+		this.genders = genders;
+		this.size = size;
+	}
+
+	public static PersonTable of(Collection<Person> persons) {
+		Builder builder = new Builder(persons.size());
+		for (Person person : persons) {
+			builder.add(person.getName(), person.getAge(), genderCode(person.getGender()));
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Loads a persons text file straight into columns. The chunks are parsed in parallel and the
+	 * names are looked up in the dictionary from their bytes, so only distinct names become Strings.
+	 * */
+	public static PersonTable load(Path path) throws IOException {
+		List<Builder> chunks = ParallelPersonLoader.parseChunks(path, 0, true, Builder::new, ForkJoinPool.commonPool());
+		Builder result = chunks.get(0);
+		for (int i = 1; i < chunks.size(); i++) {
+			result.append(chunks.get(i));
+		}
+		return result.build();
+	}
+
+	static byte genderCode(String gender) {
+		if (gender == null) {
+			return 0;
+		}
+		if (gender.length() != 1 || gender.charAt(0) > 0x7f) {
+			throw new IllegalArgumentException("Gender must be a single ASCII character: " + gender);
+		}
+		return (byte) gender.charAt(0);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public String name(int row) {
+		return dictionary[nameIds[checkRow(row)]];
+	}
+
+	public int nameId(int row) {
+		return nameIds[checkRow(row)];
+	}
+
+	public int age(int row) {
+		return ages[checkRow(row)];
+	}
+
+	public String gender(int row) {
+		return PersonRecordParser.gender(genders[checkRow(row)]);
+	}
+
+	public byte genderCode(int row) {
+		return genders[checkRow(row)];
+	}
+
+	/** Number of distinct names. */
+	public int dictionarySize() {
+		return dictionary.length;
+	}
+
+	public String dictionaryName(int nameId) {
+		return dictionary[nameId];
+	}
+
+	/** Builds a Person for the row. */
+	public Person person(int row) {
+		Person person = new Person(name(row), ages[row]);
+		person.setGender(PersonRecordParser.gender(genders[row]));
+		return person;
+	}
+
+	/** Returns the rows whose age matches, in row order. */
+	public int[] select(IntPredicate agePredicate) {
+		int[] rows = new int[Math.min(size, 16)];
+		int count = 0;
+		for (int row = 0; row < size; row++) {
+			if (agePredicate.test(ages[row])) {
+				if (count == rows.length) {
+					rows = Arrays.copyOf(rows, Math.min(size, count * 2));
+				}
+				rows[count++] = row;
+			}
+		}
+		return Arrays.copyOf(rows, count);
+	}
+
+	/** Returns the rows with minAge <= age <= maxAge and the given gender code (0 for any gender). */
+	public int[] select(int minAge, int maxAge, byte gender) {
+		int[] rows = new int[Math.min(size, 16)];
+		int count = 0;
+		for (int row = 0; row < size; row++) {
+			int age = ages[row];
+			if (age >= minAge && age <= maxAge && (gender == 0 || genders[row] == gender)) {
+				if (count == rows.length) {
+					rows = Arrays.copyOf(rows, Math.min(size, count * 2));
+				}
+				rows[count++] = row;
+			}
+		}
+		return Arrays.copyOf(rows, count);
+	}
+
+	public int count(IntPredicate agePredicate) {
+		int count = 0;
+		for (int row = 0; row < size; row++) {
+			if (agePredicate.test(ages[row])) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	public int minAge() {
+		if (size == 0) {
+			throw new IllegalStateException("Empty table");
+		}
+		int min = Integer.MAX_VALUE;
+		for (int row = 0; row < size; row++) {
+			min = Math.min(min, ages[row]);
+		}
+		return min;
+	}
+
+	public int maxAge() {
+		if (size == 0) {
+			throw new IllegalStateException("Empty table");
+		}
+		int max = Integer.MIN_VALUE;
+		for (int row = 0; row < size; row++) {
+			max = Math.max(max, ages[row]);
+		}
+		return max;
+	}
+
+	/**
+	 * Number of rows per age, indexed by age. The array length is maxAge() + 1, at most MAX_AGE + 1.
+	 * */
+	public int[] countByAge() {
+		int[] counts = new int[size == 0 ? 0 : maxAge() + 1];
+		for (int row = 0; row < size; row++) {
+			counts[ages[row]]++;
+		}
+		return counts;
+	}
+
+	/**
+	 * Rows grouped by age, indexed by age, each group in row order. This is the columnar
+	 * counterpart of groupingBy(Person::getAge) and is built with a counting sort.
+	 * */
+	public int[][] rowsByAge() {
+		int[] counts = countByAge();
+		int[][] groups = new int[counts.length][];
+		for (int age = 0; age < counts.length; age++) {
+			groups[age] = new int[counts[age]];
+		}
+		int[] fill = new int[counts.length];
+		for (int row = 0; row < size; row++) {
+			int age = ages[row];
+			groups[age][fill[age]++] = row;
+		}
+		return groups;
+	}
+
+	/** Rows as an IntStream, for composing with the stream API without creating Person objects. */
+	public IntStream rows() {
+		return IntStream.range(0, size);
+	}
+
+	/** All rows as Person objects, created lazily. */
+	public Stream<Person> stream() {
+		return rows().mapToObj(this::person);
+	}
+
+	/** The selected rows as Person objects, created lazily. */
+	public Stream<Person> stream(int[] rows) {
+		return Arrays.stream(rows).mapToObj(this::person);
+	}
+
+	/** Approximate heap used by the columns and the dictionary, in bytes. */
+	public long estimatedBytes() {
+		long bytes = (long) nameIds.length * Integer.BYTES + (long) ages.length * Integer.BYTES + genders.length;
+		for (String name : dictionary) {
+			bytes += 40 + name.length();
+		}
+		return bytes;
+	}
+
+	String[] dictionary() {
+		return dictionary;
+	}
+
+	int[] nameIdColumn() {
+		return nameIds;
+	}
+
+	int[] ageColumn() {
+		return ages;
+	}
+
+	byte[] genderColumn() {
+		return genders;
+	}
+
+	private int checkRow(int row) {
+		if (row < 0 || row >= size) {
+			throw new IndexOutOfBoundsException("Row " + row + " out of range for size " + size);
+		}
+		return row;
+	}
+
+	/**
+	 * Appends rows to growing columns. It is also a RecordVisitor, so PersonRecordParser can fill
+	 * it directly from the bytes of a file: the name bytes are hashed and compared against the
+	 * dictionary, and a String is only created for a name that has not been seen before.
+	 * */
+	public static final class Builder implements PersonRecordParser.RecordVisitor {
+
+		private String[] names = new String[16];
+		private byte[][] nameBytes = new byte[16][];
+		private int[] nameHashes = new int[16];
+		private int nameCount;
+		private int[] slots = new int[32];
+
+		private int[] nameIds;
+		private int[] ages;
+		private byte[] genders;
+		private int size;
+
+		public Builder() {
+			this(16);
+		}
+
+		public Builder(int expectedRows) {
+			int capacity = Math.max(16, expectedRows);
+			nameIds = new int[capacity];
+			ages = new int[capacity];
+			genders = new byte[capacity];
+			Arrays.fill(slots, -1);
+		}
+
+		public Builder add(String name, int age, byte gender) {
+			byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+			addRow(intern(bytes, name), age, gender);
+			return this;
+		}
+
+		@Override
+		public void visit(ByteBuffer buffer, int nameStart, int nameEnd, int age, byte gender) {
+			int length = nameEnd - nameStart;
+			int hash = 1;
+			for (int i = nameStart; i < nameEnd; i++) {
+				hash = 31 * hash + buffer.get(i);
+			}
+			int slot = hash & (slots.length - 1);
+			int id;
+			while ((id = slots[slot]) >= 0) {
+				if (nameHashes[id] == hash && matches(nameBytes[id], buffer, nameStart, length)) {
+					addRow(id, age, gender);
+					return;
+				}
+				slot = (slot + 1) & (slots.length - 1);
+			}
+			byte[] bytes = new byte[length];
+			for (int i = 0; i < length; i++) {
+				bytes[i] = buffer.get(nameStart + i);
+			}
+			addRow(insert(bytes, hash, new String(bytes, StandardCharsets.UTF_8), slot), age, gender);
+		}
+
+		/**
+		 * Appends all rows of another builder, remapping its name ids into this dictionary.
+		 * */
+		public Builder append(Builder other) {
+			int[] remap = new int[other.nameCount];
+			for (int id = 0; id < other.nameCount; id++) {
+				byte[] bytes = other.nameBytes[id];
+				remap[id] = intern(bytes, other.names[id]);
+			}
+			ensureCapacity(size + other.size);
+			for (int row = 0; row < other.size; row++) {
+				nameIds[size + row] = remap[other.nameIds[row]];
+			}
+			System.arraycopy(other.ages, 0, ages, size, other.size);
+			System.arraycopy(other.genders, 0, genders, size, other.size);
+			size += other.size;
+			return this;
+		}
+
+		public PersonTable build() {
+			return new PersonTable(Arrays.copyOf(names, nameCount), Arrays.copyOf(nameIds, size),
+					Arrays.copyOf(ages, size), Arrays.copyOf(genders, size), size);
+		}
+
+		private int intern(byte[] bytes, String name) {
+			int hash = 1;
+			for (int i = 0; i < bytes.length; i++) {
+				hash = 31 * hash + bytes[i];
+			}
+			int slot = hash & (slots.length - 1);
+			int id;
+			while ((id = slots[slot]) >= 0) {
+				if (nameHashes[id] == hash && Arrays.equals(nameBytes[id], bytes)) {
+					return id;
+				}
+				slot = (slot + 1) & (slots.length - 1);
+			}
+			return insert(bytes, hash, name, slot);
+		}
+
+		private int insert(byte[] bytes, int hash, String name, int slot) {
+			if (nameCount == names.length) {
+				names = Arrays.copyOf(names, nameCount * 2);
+				nameBytes = Arrays.copyOf(nameBytes, nameCount * 2);
+				nameHashes = Arrays.copyOf(nameHashes, nameCount * 2);
+			}
+			int id = nameCount++;
+			names[id] = name;
+			nameBytes[id] = bytes;
+			nameHashes[id] = hash;
+			slots[slot] = id;
+			if (nameCount * 2 > slots.length) {
+				rehash();
+			}
+			return id;
+		}
+
+		private void rehash() {
+			slots = new int[slots.length * 2];
+			Arrays.fill(slots, -1);
+			for (int id = 0; id < nameCount; id++) {
+				int slot = nameHashes[id] & (slots.length - 1);
+				while (slots[slot] >= 0) {
+					slot = (slot + 1) & (slots.length - 1);
+				}
+				slots[slot] = id;
+			}
+		}
+
+		private void addRow(int nameId, int age, byte gender) {
+			if (age < 0 || age > MAX_AGE) {
+				throw new IllegalArgumentException("Age must be between 0 and " + MAX_AGE + ": " + age);
+			}
+			ensureCapacity(size + 1);
+			nameIds[size] = nameId;
+			ages[size] = age;
+			genders[size] = gender;
+			size++;
+		}
+
+		private void ensureCapacity(int capacity) {
+			if (capacity > ages.length) {
+				int newCapacity = Math.max(capacity, ages.length + (ages.length >> 1));
+				nameIds = Arrays.copyOf(nameIds, newCapacity);
+				ages = Arrays.copyOf(ages, newCapacity);
+				genders = Arrays.copyOf(genders, newCapacity);
+			}
+		}
+
+		private static boolean matches(byte[] bytes, ByteBuffer buffer, int start, int length) {
+			if (bytes.length != length) {
+				return false;
+			}
+			for (int i = 0; i < length; i++) {
+				if (bytes[i] != buffer.get(start + i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+}
@@ -0,0 +1,560 @@
+package com.demo.table;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * Compressed, immutable set of row numbers, in the style of a Roaring bitmap.
+ *
+ * The rows are split by their high 16 bits into containers of up to 65536 rows. Every container is
+ * stored in whichever of three forms is smallest:
+ * 		array	sorted char[] of the low 16 bits, for sparse containers (up to 4096 rows)
+ * 		bitmap	long[1024], one bit per row, for dense containers
+ * 		run		sorted (start, length) pairs, for rows that come in consecutive ranges
+ *
+ * and()/or() work container by container, so a query like "gender F and age 20-30" is a few word wise
+ * operations instead of a scan over every row. cardinality() is kept per container, so counting needs
+ * no iteration at all. toArray() returns the rows as a selection vector and stream() iterates them lazily.
+ * */
+public final class RowBitmap {
+
+	private static final RowBitmap EMPTY = new RowBitmap(new char[0], new Container[0]);
+
+	/** Above this many values an array container is bigger than a bitmap container. */
+	static final int ARRAY_LIMIT = 4096;
+
+	private final char[] keys;
+	private final Container[] containers;
+	private final int cardinality;
+
+	private RowBitmap(char[] keys, Container[] containers) {
+		this.keys = keys;
+		this.containers = containers;
+		int cardinality = 0;
+		for (Container container : containers) {
+			cardinality += container.cardinality();
+		}
+		this.cardinality = cardinality;
+	}
+
+	public static RowBitmap empty() {
+		return EMPTY;
+	}
+
+	public static RowBitmap of(int... rows) {
+		int[] sorted = rows.clone();
+		Arrays.sort(sorted);
+		Builder builder = new Builder();
+		for (int i = 0; i < sorted.length; i++) {
+			if (i == 0 || sorted[i] != sorted[i - 1]) {
+				builder.add(sorted[i]);
+			}
+		}
+		return builder.build();
+	}
+
+	/** All rows in [from, to). */
+	public static RowBitmap range(int from, int to) {
+		Builder builder = new Builder();
+		for (int row = from; row < to; row++) {
+			builder.add(row);
+		}
+		return builder.build();
+	}
+
+	public int cardinality() {
+		return cardinality;
+	}
+
+	public boolean isEmpty() {
+		return cardinality == 0;
+	}
+
+	public boolean contains(int row) {
+		int index = Arrays.binarySearch(keys, (char) (row >>> 16));
+		return row >= 0 && index >= 0 && containers[index].contains((char) row);
+	}
+
+	public RowBitmap and(RowBitmap other) {
+		char[] resultKeys = new char[Math.min(keys.length, other.keys.length)];
+		Container[] result = new Container[resultKeys.length];
+		int count = 0;
+		int i = 0;
+		int j = 0;
+		while (i < keys.length && j < other.keys.length) {
+			if (keys[i] < other.keys[j]) {
+				i++;
+			} else if (keys[i] > other.keys[j]) {
+				j++;
+			} else {
+				Container container = Container.and(containers[i], other.containers[j]);
+				if (container != null) {
+					resultKeys[count] = keys[i];
+					result[count++] = container;
+				}
+				i++;
+				j++;
+			}
+		}
+		return new RowBitmap(Arrays.copyOf(resultKeys, count), Arrays.copyOf(result, count));
+	}
+
+	public RowBitmap or(RowBitmap other) {
+		char[] resultKeys = new char[keys.length + other.keys.length];
+		Container[] result = new Container[resultKeys.length];
+		int count = 0;
+		int i = 0;
+		int j = 0;
+		while (i < keys.length || j < other.keys.length) {
+			if (j == other.keys.length || (i < keys.length && keys[i] < other.keys[j])) {
+				resultKeys[count] = keys[i];
+				result[count++] = containers[i++];
+			} else if (i == keys.length || keys[i] > other.keys[j]) {
+				resultKeys[count] = other.keys[j];
+				result[count++] = other.containers[j++];
+			} else {
+				resultKeys[count] = keys[i];
+				result[count++] = Container.or(containers[i++], other.containers[j++]);
+			}
+		}
+		return new RowBitmap(Arrays.copyOf(resultKeys, count), Arrays.copyOf(result, count));
+	}
+
+	/**
+	 * OR of any number of bitmaps in one pass: the containers of all the bitmaps are sorted by key, and
+	 * the containers of one key are ORed into a single word bitmap, so no intermediate result is built.
+	 * */
+	public static RowBitmap or(RowBitmap... bitmaps) {
+		int total = 0;
+		for (RowBitmap bitmap : bitmaps) {
+			total += bitmap.keys.length;
+		}
+		Container[] all = new Container[total];
+		// key in the high half, index into all in the low half
+		long[] entries = new long[total];
+		int n = 0;
+		for (RowBitmap bitmap : bitmaps) {
+			for (int i = 0; i < bitmap.keys.length; i++) {
+				entries[n] = (long) bitmap.keys[i] << 32 | n;
+				all[n++] = bitmap.containers[i];
+			}
+		}
+		Arrays.sort(entries);
+		char[] resultKeys = new char[total];
+		Container[] result = new Container[total];
+		int count = 0;
+		for (int from = 0; from < total;) {
+			char key = (char) (entries[from] >>> 32);
+			int to = from + 1;
+			while (to < total && (char) (entries[to] >>> 32) == key) {
+				to++;
+			}
+			Container container = all[(int) entries[from]];
+			if (to - from > 1) {
+				long[] words = new long[1024];
+				for (int i = from; i < to; i++) {
+					all[(int) entries[i]].orInto(words);
+				}
+				container = Container.fromWords(words);
+			}
+			resultKeys[count] = key;
+			result[count++] = container;
+			from = to;
+		}
+		return new RowBitmap(Arrays.copyOf(resultKeys, count), Arrays.copyOf(result, count));
+	}
+
+	/** The rows of this bitmap that match the predicate. */
+	public RowBitmap filter(IntPredicate rowPredicate) {
+		Builder builder = new Builder();
+		stream().filter(rowPredicate).forEach(builder::add);
+		return builder.build();
+	}
+
+	/** The rows in ascending order, as a selection vector. */
+	public int[] toArray() {
+		int[] rows = new int[cardinality];
+		int offset = 0;
+		for (int i = 0; i < containers.length; i++) {
+			offset = containers[i].copyTo(rows, offset, keys[i] << 16);
+		}
+		return rows;
+	}
+
+	/** The rows in ascending order, produced lazily container by container. */
+	public IntStream stream() {
+		return IntStream.range(0, containers.length).flatMap(i -> containers[i].stream(keys[i] << 16));
+	}
+
+	/** Approximate size of the containers in bytes. */
+	public long sizeInBytes() {
+		long bytes = keys.length * 2L;
+		for (Container container : containers) {
+			bytes += container.sizeInBytes();
+		}
+		return bytes;
+	}
+
+	@Override
+	public String toString() {
+		return "RowBitmap [cardinality=" + cardinality + ", containers=" + containers.length + "]";
+	}
+
+	/** Builds a bitmap from rows added in ascending order. */
+	public static final class Builder {
+
+		private char[] keys = new char[4];
+		private Container[] containers = new Container[4];
+		private int count;
+
+		private int high = -1;
+		private char[] values = new char[64];
+		private int size;
+		private int last = -1;
+
+		public Builder add(int row) {
+			if (row <= last) {
+				throw new IllegalArgumentException("Rows must be added in ascending order: " + row + " after " + last);
+			}
+			last = row;
+			int rowHigh = row >>> 16;
+			if (rowHigh != high) {
+				flush();
+				high = rowHigh;
+			}
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = (char) row;
+			return this;
+		}
+
+		public RowBitmap build() {
+			flush();
+			return new RowBitmap(Arrays.copyOf(keys, count), Arrays.copyOf(containers, count));
+		}
+
+		private void flush() {
+			if (size == 0) {
+				return;
+			}
+			if (count == keys.length) {
+				keys = Arrays.copyOf(keys, count * 2);
+				containers = Arrays.copyOf(containers, count * 2);
+			}
+			keys[count] = (char) high;
+			containers[count++] = Container.fromSorted(values, size);
+			size = 0;
+		}
+	}
+
+	private abstract static class Container {
+
+		abstract int cardinality();
+
+		abstract boolean contains(char value);
+
+		/** Sets the bits of this container in a 1024 word bitmap. */
+		abstract void orInto(long[] words);
+
+		abstract int copyTo(int[] rows, int offset, int base);
+
+		abstract IntStream stream(int base);
+
+		abstract long sizeInBytes();
+
+		long[] toWords() {
+			long[] words = new long[1024];
+			orInto(words);
+			return words;
+		}
+
+		static Container and(Container a, Container b) {
+			if (a instanceof ArrayContainer) {
+				return ((ArrayContainer) a).filter(b);
+			}
+			if (b instanceof ArrayContainer) {
+				return ((ArrayContainer) b).filter(a);
+			}
+			long[] words = a.toWords();
+			long[] other = b.toWords();
+			for (int i = 0; i < words.length; i++) {
+				words[i] &= other[i];
+			}
+			return fromWords(words);
+		}
+
+		static Container or(Container a, Container b) {
+			if (a instanceof ArrayContainer && b instanceof ArrayContainer) {
+				return ((ArrayContainer) a).merge((ArrayContainer) b);
+			}
+			long[] words = a.toWords();
+			b.orInto(words);
+			return fromWords(words);
+		}
+
+		/** Picks the smallest form for sorted, distinct values. */
+		static Container fromSorted(char[] values, int size) {
+			int runs = 0;
+			for (int i = 0; i < size; i++) {
+				if (i == 0 || values[i] != values[i - 1] + 1) {
+					runs++;
+				}
+			}
+			if (runs * 4 < Math.min(size * 2, 8192)) {
+				return RunContainer.fromSorted(values, size, runs);
+			}
+			if (size <= ARRAY_LIMIT) {
+				return new ArrayContainer(Arrays.copyOf(values, size));
+			}
+			long[] words = new long[1024];
+			for (int i = 0; i < size; i++) {
+				words[values[i] >>> 6] |= 1L << values[i];
+			}
+			return new BitmapContainer(words, size);
+		}
+
+		/** Picks the smallest form for a bitmap, or null when it is empty. */
+		static Container fromWords(long[] words) {
+			int cardinality = 0;
+			for (long word : words) {
+				cardinality += Long.bitCount(word);
+			}
+			if (cardinality == 0) {
+				return null;
+			}
+			if (cardinality <= ARRAY_LIMIT) {
+				char[] values = new char[cardinality];
+				int n = 0;
+				for (int i = 0; i < words.length; i++) {
+					long word = words[i];
+					while (word != 0) {
+						values[n++] = (char) (i * 64 + Long.numberOfTrailingZeros(word));
+						word &= word - 1;
+					}
+				}
+				return fromSorted(values, n);
+			}
+			return new BitmapContainer(words, cardinality);
+		}
+	}
+
+	private static final class ArrayContainer extends Container {
+
+		private final char[] values;
+
+		ArrayContainer(char[] values) {
+			this.values = values;
+		}
+
+		@Override
+		int cardinality() {
+			return values.length;
+		}
+
+		@Override
+		boolean contains(char value) {
+			return Arrays.binarySearch(values, value) >= 0;
+		}
+
+		@Override
+		void orInto(long[] words) {
+			for (char value : values) {
+				words[value >>> 6] |= 1L << value;
+			}
+		}
+
+		@Override
+		int copyTo(int[] rows, int offset, int base) {
+			for (char value : values) {
+				rows[offset++] = base | value;
+			}
+			return offset;
+		}
+
+		@Override
+		IntStream stream(int base) {
+			return IntStream.range(0, values.length).map(i -> base | values[i]);
+		}
+
+		@Override
+		long sizeInBytes() {
+			return values.length * 2L;
+		}
+
+		Container filter(Container other) {
+			char[] result = new char[values.length];
+			int n = 0;
+			for (char value : values) {
+				if (other.contains(value)) {
+					result[n++] = value;
+				}
+			}
+			return n == 0 ? null : fromSorted(result, n);
+		}
+
+		Container merge(ArrayContainer other) {
+			char[] result = new char[values.length + other.values.length];
+			int n = 0;
+			int i = 0;
+			int j = 0;
+			while (i < values.length || j < other.values.length) {
+				char next;
+				if (j == other.values.length || (i < values.length && values[i] < other.values[j])) {
+					next = values[i++];
+				} else if (i == values.length || values[i] > other.values[j]) {
+					next = other.values[j++];
+				} else {
+					next = values[i++];
+					j++;
+				}
+				result[n++] = next;
+			}
+			return fromSorted(result, n);
+		}
+	}
+
+	private static final class BitmapContainer extends Container {
+
+		private final long[] words;
+		private final int cardinality;
+
+		BitmapContainer(long[] words, int cardinality) {
+			this.words = words;
+			this.cardinality = cardinality;
+		}
+
+		@Override
+		int cardinality() {
+			return cardinality;
+		}
+
+		@Override
+		boolean contains(char value) {
+			return (words[value >>> 6] & (1L << value)) != 0;
+		}
+
+		@Override
+		void orInto(long[] target) {
+			for (int i = 0; i < words.length; i++) {
+				target[i] |= words[i];
+			}
+		}
+
+		@Override
+		long[] toWords() {
+			return words.clone();
+		}
+
+		@Override
+		int copyTo(int[] rows, int offset, int base) {
+			for (int i = 0; i < words.length; i++) {
+				long word = words[i];
+				while (word != 0) {
+					rows[offset++] = base | (i * 64 + Long.numberOfTrailingZeros(word));
+					word &= word - 1;
+				}
+			}
+			return offset;
+		}
+
+		@Override
+		IntStream stream(int base) {
+			return IntStream.range(0, words.length).filter(i -> words[i] != 0).flatMap(i -> {
+				int[] rows = new int[Long.bitCount(words[i])];
+				long word = words[i];
+				for (int n = 0; word != 0; n++) {
+					rows[n] = base | (i * 64 + Long.numberOfTrailingZeros(word));
+					word &= word - 1;
+				}
+				return IntStream.of(rows);
+			});
+		}
+
+		@Override
+		long sizeInBytes() {
+			return words.length * 8L;
+		}
+	}
+
+	private static final class RunContainer extends Container {
+
+		/** Run i covers starts[i] .. starts[i] + lengths[i], both inclusive. */
+		private final char[] starts;
+		private final char[] lengths;
+		private final int cardinality;
+
+		private RunContainer(char[] starts, char[] lengths, int cardinality) {
+			this.starts = starts;
+			this.lengths = lengths;
+			this.cardinality = cardinality;
+		}
+
+		static RunContainer fromSorted(char[] values, int size, int runs) {
+			char[] starts = new char[runs];
+			char[] lengths = new char[runs];
+			int run = -1;
+			for (int i = 0; i < size; i++) {
+				if (i == 0 || values[i] != values[i - 1] + 1) {
+					starts[++run] = values[i];
+				} else {
+					lengths[run]++;
+				}
+			}
+			return new RunContainer(starts, lengths, size);
+		}
+
+		@Override
+		int cardinality() {
+			return cardinality;
+		}
+
+		@Override
+		boolean contains(char value) {
+			int index = Arrays.binarySearch(starts, value);
+			if (index >= 0) {
+				return true;
+			}
+			int run = -index - 2;
+			return run >= 0 && value <= starts[run] + lengths[run];
+		}
+
+		@Override
+		void orInto(long[] words) {
+			for (int run = 0; run < starts.length; run++) {
+				int from = starts[run];
+				int to = from + lengths[run] + 1;
+				for (int v = from; v < to;) {
+					int word = v >>> 6;
+					int end = Math.min(to, (word + 1) << 6);
+					long mask = (end - v == 64) ? -1L : ((1L << (end - v)) - 1) << v;
+					words[word] |= mask;
+					v = end;
+				}
+			}
+		}
+
+		@Override
+		int copyTo(int[] rows, int offset, int base) {
+			for (int run = 0; run < starts.length; run++) {
+				int to = starts[run] + lengths[run];
+				for (int v = starts[run]; v <= to; v++) {
+					rows[offset++] = base | v;
+				}
+			}
+			return offset;
+		}
+
+		@Override
+		IntStream stream(int base) {
+			return IntStream.range(0, starts.length)
+					.flatMap(run -> IntStream.rangeClosed(base | starts[run], base | (starts[run] + lengths[run])));
+		}
+
+		@Override
+		long sizeInBytes() {
+			return starts.length * 4L;
+		}
+	}
+}
@@ -0,0 +1,191 @@
+package com.demo.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+import com.demo.domain.Person;
+
+/**
+ * Two level (age, gender) index over persons, the purpose built version of the
+ * Map<Integer, Map<String, List<Person>>> that BiMapsDemo builds with computeIfAbsent() and merge().
+ *
+ * The ages are kept in an IntObjectMap, so they are not boxed, and every age keeps a short array of
+ * genders with one growable Person[] bucket each. Adding a person appends to an existing array and
+ * only allocates when a bucket has to grow, instead of creating a one element ArrayList per person.
+ *
+ * 		AgeGenderIndex index = AgeGenderIndex.of(persons.stream());
+ * 		List<Person> women = index.get(23, "F");
+ * 		List<Person> all = index.get(23);
+ *
+ * 		AgeGenderIndex index = persons.parallelStream().collect(AgeGenderIndex.collector());
+ * */
+public final class AgeGenderIndex {
+
+	/** Receives one (age, gender) group. */
+	@FunctionalInterface
+	public interface GroupConsumer {
+		void accept(int age, String gender, List<Person> persons);
+	}
+
+	private final IntObjectMap<AgeEntry> ages = new IntObjectMap<>();
+	private int size;
+
+	public static AgeGenderIndex of(Stream<Person> persons) {
+		return persons.collect(collector());
+	}
+
+	/**
+	 * Collector building the index in one pass. With a parallel stream every worker builds its own
+	 * index and the combiner appends the buckets, keeping the encounter order.
+	 * */
+	public static Collector<Person, ?, AgeGenderIndex> collector() {
+		return Collector.of(AgeGenderIndex::new, AgeGenderIndex::add, AgeGenderIndex::merge,
+				Collector.Characteristics.IDENTITY_FINISH);
+	}
+
+	public void add(Person person) {
+		ages.computeIfAbsent(person.getAge(), age -> new AgeEntry()).bucket(person.getGender()).add(person);
+		size++;
+	}
+
+	/** Appends all groups of other to this index. */
+	public AgeGenderIndex merge(AgeGenderIndex other) {
+		other.ages.forEach((age, otherEntry) -> {
+			AgeEntry entry = ages.computeIfAbsent(age, key -> new AgeEntry());
+			for (int i = 0; i < otherEntry.count; i++) {
+				entry.bucket(otherEntry.genders[i]).addAll(otherEntry.buckets[i]);
+			}
+		});
+		size += other.size;
+		return this;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/** Persons with the given age and gender, as a read only view. */
+	public List<Person> get(int age, String gender) {
+		AgeEntry entry = ages.get(age);
+		Bucket bucket = entry == null ? null : entry.find(gender);
+		return bucket == null ? Collections.emptyList() : bucket.view();
+	}
+
+	/** Persons with the given age across all genders. */
+	public List<Person> get(int age) {
+		AgeEntry entry = ages.get(age);
+		if (entry == null) {
+			return Collections.emptyList();
+		}
+		if (entry.count == 1) {
+			return entry.buckets[0].view();
+		}
+		List<Person> persons = new ArrayList<>(count(age));
+		for (int i = 0; i < entry.count; i++) {
+			persons.addAll(entry.buckets[i].view());
+		}
+		return Collections.unmodifiableList(persons);
+	}
+
+	public int count(int age, String gender) {
+		AgeEntry entry = ages.get(age);
+		Bucket bucket = entry == null ? null : entry.find(gender);
+		return bucket == null ? 0 : bucket.size;
+	}
+
+	public int count(int age) {
+		AgeEntry entry = ages.get(age);
+		int count = 0;
+		if (entry != null) {
+			for (int i = 0; i < entry.count; i++) {
+				count += entry.buckets[i].size;
+			}
+		}
+		return count;
+	}
+
+	/** The indexed ages in ascending order. */
+	public int[] ages() {
+		return ages.keys();
+	}
+
+	/** Visits the groups by ascending age, genders in the order they were first seen. */
+	public void forEach(GroupConsumer action) {
+		ages.forEach((age, entry) -> {
+			for (int i = 0; i < entry.count; i++) {
+				action.accept(age, entry.genders[i], entry.buckets[i].view());
+			}
+		});
+	}
+
+	/** Copies the index into the nested map shape BiMapsDemo prints. */
+	public Map<Integer, Map<String, List<Person>>> toMap() {
+		Map<Integer, Map<String, List<Person>>> map = new HashMap<>();
+		forEach((age, gender, persons) -> map.computeIfAbsent(age, key -> new HashMap<>())
+				.put(gender, new ArrayList<>(persons)));
+		return map;
+	}
+
+	/** The genders of one age. There are only a few, so a linear scan beats hashing. */
+	private static final class AgeEntry {
+
+		private String[] genders = new String[2];
+		private Bucket[] buckets = new Bucket[2];
+		private int count;
+
+		Bucket find(String gender) {
+			for (int i = 0; i < count; i++) {
+				if (Objects.equals(genders[i], gender)) {
+					return buckets[i];
+				}
+			}
+			return null;
+		}
+
+		Bucket bucket(String gender) {
+			Bucket bucket = find(gender);
+			if (bucket == null) {
+				if (count == genders.length) {
+					genders = Arrays.copyOf(genders, count * 2);
+					buckets = Arrays.copyOf(buckets, count * 2);
+				}
+				bucket = new Bucket();
+				genders[count] = gender;
+				buckets[count++] = bucket;
+			}
+			return bucket;
+		}
+	}
+
+	private static final class Bucket {
+
+		private Person[] persons = new Person[8];
+		private int size;
+
+		void add(Person person) {
+			if (size == persons.length) {
+				persons = Arrays.copyOf(persons, size + (size >> 1));
+			}
+			persons[size++] = person;
+		}
+
+		void addAll(Bucket other) {
+			if (size + other.size > persons.length) {
+				persons = Arrays.copyOf(persons, Math.max(size + other.size, size + (size >> 1)));
+			}
+			System.arraycopy(other.persons, 0, persons, size, other.size);
+			size += other.size;
+		}
+
+		List<Person> view() {
+			return Collections.unmodifiableList(Arrays.asList(persons).subList(0, size));
+		}
+	}
+}
@@ -0,0 +1,240 @@
+package com.demo.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import com.demo.domain.Person;
+
+/**
+ * Order statistics over the ages of a set of persons.
+ *
+ * The persons are kept in counting sort buckets indexed by age, and a Fenwick tree (binary indexed
+ * tree) over the bucket sizes answers prefix counts in O(log maxAge). On top of that:
+ *
+ * 		youngestOlderThan(20)		filter(p -> p.getAge() > 20).min(comparing(Person::getAge))
+ * 		oldest()					max(comparing(Person::getAge))
+ * 		countBetween(20, 30)		filter(p -> p.getAge() >= 20 && p.getAge() <= 30).count()
+ * 		rank(30)					number of persons younger than 30
+ * 		percentile(90)				age at the 90th percentile (nearest rank)
+ *
+ * all run in O(log maxAge) without comparing or boxing anything, and add()/remove() keep the index up
+ * to date incrementally. Within one age the persons keep insertion order, so the person returned for
+ * a tie is the first one added, like Stream.min()/max(). To keep that order remove() costs
+ * O(log maxAge + bucket size): it scans the bucket of that age and shifts the persons added after.
+ *
+ * Ages must be between 0 and MAX_AGE, so one outlier can't make the buckets and the tree huge. The
+ * capacity grows to the largest age seen, at most doubling at a time.
+ * */
+public final class AgeIndex {
+
+	/** Largest age accepted; larger ones throw IllegalArgumentException. */
+	public static final int MAX_AGE = (1 << 16) - 1;
+
+	private List<Person>[] buckets;
+	private long[] tree;
+	private int size;
+
+	public AgeIndex() {
+		this(128);
+	}
+
+	public AgeIndex(int expectedMaxAge) {
+		allocate(Math.max(16, Math.min(MAX_AGE, Math.max(0, expectedMaxAge)) + 1));
+	}
+
+	public static AgeIndex of(Collection<Person> persons) {
+		int maxAge = 0;
+		for (Person person : persons) {
+			maxAge = Math.max(maxAge, checkAge(person.getAge()));
+		}
+		AgeIndex index = new AgeIndex(maxAge);
+		for (Person person : persons) {
+			index.bucket(person.getAge()).add(person);
+		}
+		index.rebuildTree();
+		index.size = persons.size();
+		return index;
+	}
+
+	public void add(Person person) {
+		int age = checkAge(person.getAge());
+		if (age >= buckets.length) {
+			grow(age);
+		}
+		bucket(age).add(person);
+		update(age, 1);
+		size++;
+	}
+
+	/** Removes the given person (by identity). Returns false when it is not in the index. */
+	public boolean remove(Person person) {
+		int age = person.getAge();
+		if (age < 0 || age >= buckets.length || buckets[age] == null) {
+			return false;
+		}
+		List<Person> bucket = buckets[age];
+		for (int i = 0; i < bucket.size(); i++) {
+			if (bucket.get(i) == person) {
+				bucket.remove(i);
+				update(age, -1);
+				size--;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int count(int age) {
+		return age < 0 || age >= buckets.length || buckets[age] == null ? 0 : buckets[age].size();
+	}
+
+	/** Number of persons with minAge <= age <= maxAge. */
+	public long countBetween(int minAge, int maxAge) {
+		if (maxAge < minAge) {
+			return 0;
+		}
+		return prefix(maxAge) - prefix(minAge - 1);
+	}
+
+	/** Number of persons younger than age. */
+	public long rank(int age) {
+		return prefix(age - 1);
+	}
+
+	/** Smallest age strictly greater than threshold. */
+	public OptionalInt minAgeAbove(int threshold) {
+		long below = prefix(threshold);
+		return below < size ? OptionalInt.of(select(below + 1)) : OptionalInt.empty();
+	}
+
+	/** Largest age strictly less than threshold. */
+	public OptionalInt maxAgeBelow(int threshold) {
+		long below = prefix(threshold - 1);
+		return below > 0 ? OptionalInt.of(select(below)) : OptionalInt.empty();
+	}
+
+	/** The first added person of the smallest age strictly greater than threshold. */
+	public Optional<Person> youngestOlderThan(int threshold) {
+		return first(minAgeAbove(threshold));
+	}
+
+	/** The first added person of the largest age strictly less than threshold. */
+	public Optional<Person> oldestYoungerThan(int threshold) {
+		return first(maxAgeBelow(threshold));
+	}
+
+	public Optional<Person> youngest() {
+		return size == 0 ? Optional.empty() : first(OptionalInt.of(select(1)));
+	}
+
+	public Optional<Person> oldest() {
+		return size == 0 ? Optional.empty() : first(OptionalInt.of(select(size)));
+	}
+
+	/** Age of the k-th youngest person, 1 based. */
+	public int ageAtRank(long k) {
+		if (k < 1 || k > size) {
+			throw new IndexOutOfBoundsException("Rank " + k + " out of range for size " + size);
+		}
+		return select(k);
+	}
+
+	/**
+	 * Age at the given percentile (0 < percentile <= 100) using the nearest rank method: the smallest
+	 * age such that at least percentile % of the persons are that age or younger.
+	 * */
+	public OptionalInt percentile(double percentile) {
+		if (!(percentile > 0 && percentile <= 100)) {
+			throw new IllegalArgumentException("percentile must be in (0, 100]: " + percentile);
+		}
+		if (size == 0) {
+			return OptionalInt.empty();
+		}
+		long k = (long) Math.ceil(percentile / 100 * size);
+		return OptionalInt.of(select(Math.max(1, Math.min(size, k))));
+	}
+
+	private Optional<Person> first(OptionalInt age) {
+		return age.isPresent() ? Optional.of(buckets[age.getAsInt()].get(0)) : Optional.empty();
+	}
+
+	/** Number of persons with age <= age. */
+	private long prefix(int age) {
+		if (age < 0) {
+			return 0;
+		}
+		long sum = 0;
+		for (int i = Math.min(age, buckets.length - 1) + 1; i > 0; i -= i & -i) {
+			sum += tree[i];
+		}
+		return sum;
+	}
+
+	/** Smallest age whose prefix count is >= k, by descending the tree. */
+	private int select(long k) {
+		int position = 0;
+		for (int step = Integer.highestOneBit(buckets.length); step > 0; step >>= 1) {
+			int next = position + step;
+			if (next <= buckets.length && tree[next] < k) {
+				position = next;
+				k -= tree[next];
+			}
+		}
+		return position;
+	}
+
+	private void update(int age, int delta) {
+		for (int i = age + 1; i <= buckets.length; i += i & -i) {
+			tree[i] += delta;
+		}
+	}
+
+	private List<Person> bucket(int age) {
+		List<Person> bucket = buckets[age];
+		if (bucket == null) {
+			bucket = new ArrayList<>(4);
+			buckets[age] = bucket;
+		}
+		return bucket;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private void allocate(int capacity) {
+		buckets = new List[capacity];
+		tree = new long[capacity + 1];
+	}
+
+	private void grow(int age) {
+		List<Person>[] old = buckets;
+		allocate(Math.max(age + 1, Math.min(MAX_AGE + 1, 2 * old.length)));
+		System.arraycopy(old, 0, buckets, 0, old.length);
+		rebuildTree();
+	}
+
+	/** Builds the Fenwick tree from the bucket sizes in O(capacity). */
+	private void rebuildTree() {
+		for (int i = 1; i <= buckets.length; i++) {
+			tree[i] = buckets[i - 1] == null ? 0 : buckets[i - 1].size();
+		}
+		for (int i = 1; i <= buckets.length; i++) {
+			int parent = i + (i & -i);
+			if (parent <= buckets.length) {
+				tree[parent] += tree[i];
+			}
+		}
+	}
+
+	private static int checkAge(int age) {
+		if (age < 0 || age > MAX_AGE) {
+			throw new IllegalArgumentException("Age must be between 0 and " + MAX_AGE + ": " + age);
+		}
+		return age;
+	}
+}
@@ -0,0 +1,314 @@
+package com.demo.util;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A Consumer<T> that prints records on a background thread, in batches, instead of one
+ * synchronized and flushed PrintStream call per record:
+ *
+ * 		persons.forEach(System.out::println);
+ *
+ * becomes
+ *
+ * 		try(AsyncOutputSink<Person> out = AsyncOutputSink.toSystemOut()){
+ * 			persons.forEach(out);
+ * 		}
+ *
+ * accept() puts the record in a bounded ring buffer and returns. The writer thread takes everything in
+ * the buffer (up to batchSize records), formats it into one block of text, appends the block to the
+ * target with one call and flushes it. close() waits until every accepted record is written.
+ *
+ * When the writer falls behind and the buffer is full, the policy decides what accept() does:
+ * 		BLOCK		waits for room, so nothing is lost (the default)
+ * 		DROP		drops the record and counts it in dropped()
+ * 		SAMPLE		once the buffer is half full, keeps only every sampleRate-th record, and drops the
+ * 					rest like DROP when it is full
+ *
+ * Records are written in the order they were accepted. The formatter runs on the writer thread, so the
+ * records must not change after they are accepted. A failure of the formatter or the target, Errors
+ * included, is rethrown from flush() and close(); the writer keeps draining the buffer, so accept() never
+ * waits forever. If the writer thread stops anyway, accept() and flush() throw instead of waiting.
+ * */
+public final class AsyncOutputSink<T> implements Consumer<T>, AutoCloseable {
+
+	public enum Policy {
+		BLOCK, DROP, SAMPLE
+	}
+
+	static final int DEFAULT_CAPACITY = 8 * 1024;
+	static final int DEFAULT_BATCH_SIZE = 1024;
+
+	private final Appendable target;
+	private final Function<? super T, String> formatter;
+	private final Policy policy;
+	private final int sampleRate;
+	private final int batchSize;
+
+	private final Object[] ring;
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notEmpty = lock.newCondition();
+	private final Condition notFull = lock.newCondition();
+	private final Condition written = lock.newCondition();
+	private final Thread writer;
+	private long head;
+	private long tail;
+	private long processedCount;
+	private long writtenCount;
+	private long dropped;
+	private long sampled;
+	private boolean closed;
+	private boolean dead;
+	private Throwable failure;
+
+	/**
+	 * @param target where the text goes, e.g. System.out or a Writer; flushed after every batch if Flushable
+	 * @param formatter turns a record into a line, without the line separator
+	 * @param sampleRate for Policy.SAMPLE, 1 record in sampleRate is kept under load
+	 * */
+	public AsyncOutputSink(Appendable target, Function<? super T, String> formatter, int capacity, int batchSize,
+			Policy policy, int sampleRate) {
+		if (capacity <= 0 || batchSize <= 0 || sampleRate <= 0) {
+			throw new IllegalArgumentException(
+					"capacity, batchSize and sampleRate must be positive: " + capacity + ", " + batchSize + ", " + sampleRate);
+		}
+		this.target = target;
+		this.formatter = formatter;
+		this.policy = policy;
+		this.sampleRate = sampleRate;
+		this.batchSize = batchSize;
+		this.ring = new Object[capacity];
+		this.writer = new Thread(this::writeLoop, "async-output-sink");
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	public AsyncOutputSink(Appendable target, Policy policy) {
+		this(target, String::valueOf, DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE, policy, 10);
+	}
+
+	/** Like System.out::println, blocking when the writer falls behind. */
+	public static <T> AsyncOutputSink<T> toSystemOut() {
+		return new AsyncOutputSink<>(System.out, Policy.BLOCK);
+	}
+
+	@Override
+	public void accept(T record) {
+		lock.lock();
+		try {
+			if (closed) {
+				throw new IllegalStateException("sink is closed");
+			}
+			checkAlive();
+			int size = (int) (tail - head);
+			if (policy == Policy.SAMPLE && size >= ring.length / 2 && sampled++ % sampleRate != 0) {
+				dropped++;
+				return;
+			}
+			while (size == ring.length) {
+				if (policy != Policy.BLOCK) {
+					dropped++;
+					return;
+				}
+				notFull.awaitUninterruptibly();
+				if (closed) {
+					throw new IllegalStateException("sink is closed");
+				}
+				checkAlive();
+				size = (int) (tail - head);
+			}
+			ring[(int) (tail++ % ring.length)] = record;
+			if (size == 0) {
+				notEmpty.signal();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/** Waits until every record accepted so far is written and flushed. */
+	public void flush() {
+		lock.lock();
+		try {
+			long target = tail;
+			while (processedCount < target && !dead) {
+				written.awaitUninterruptibly();
+			}
+			rethrow();
+			if (processedCount < target) {
+				throw new IllegalStateException("writer thread has stopped", failure);
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/** Writes what is left, stops the writer thread and flushes. Doesn't close the target. */
+	@Override
+	public void close() {
+		lock.lock();
+		try {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			notEmpty.signal();
+			notFull.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		boolean interrupted = false;
+		while (true) {
+			try {
+				writer.join();
+				break;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+		lock.lock();
+		try {
+			rethrow();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/** Records written so far, not counting those of batches the formatter or the target failed on. */
+	public long written() {
+		lock.lock();
+		try {
+			return writtenCount;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/** Records dropped by the DROP and SAMPLE policies. */
+	public long dropped() {
+		lock.lock();
+		try {
+			return dropped;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/** Records waiting to be written. */
+	public int pending() {
+		lock.lock();
+		try {
+			return (int) (tail - head);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void rethrow() {
+		if (failure instanceof RuntimeException) {
+			throw (RuntimeException) failure;
+		}
+		if (failure instanceof Error) {
+			throw (Error) failure;
+		}
+	}
+
+	private void checkAlive() {
+		if (dead) {
+			throw new IllegalStateException("writer thread has stopped", failure);
+		}
+	}
+
+	/** Runs the writer and, however it ends, wakes up everyone waiting for it. */
+	private void writeLoop() {
+		try {
+			drain();
+		} catch (Throwable t) {
+			lock.lock();
+			try {
+				if (failure == null) {
+					failure = t;
+				}
+			} finally {
+				lock.unlock();
+			}
+			throw t;
+		} finally {
+			lock.lock();
+			try {
+				dead = true;
+				notFull.signalAll();
+				written.signalAll();
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	private void drain() {
+		Object[] batch = new Object[Math.min(batchSize, ring.length)];
+		StringBuilder text = new StringBuilder(batch.length * 32);
+		String separator = System.lineSeparator();
+		while (true) {
+			int count = 0;
+			lock.lock();
+			try {
+				while (head == tail && !closed) {
+					notEmpty.awaitUninterruptibly();
+				}
+				if (head == tail) {
+					return;
+				}
+				while (head < tail && count < batch.length) {
+					int index = (int) (head++ % ring.length);
+					batch[count++] = ring[index];
+					ring[index] = null;
+				}
+				notFull.signalAll();
+			} finally {
+				lock.unlock();
+			}
+
+			Throwable error = null;
+			try {
+				text.setLength(0);
+				for (int i = 0; i < count; i++) {
+					@SuppressWarnings("unchecked")
+					T record = (T) batch[i];
+					text.append(formatter.apply(record)).append(separator);
+				}
+				target.append(text);
+				if (target instanceof Flushable) {
+					((Flushable) target).flush();
+				}
+			} catch (IOException e) {
+				error = new UncheckedIOException(e);
+			} catch (RuntimeException | Error e) {
+				error = e;
+			}
+			Arrays.fill(batch, 0, count, null);
+
+			lock.lock();
+			try {
+				processedCount += count;
+				if (error == null) {
+					writtenCount += count;
+				} else if (failure == null) {
+					failure = error;
+				}
+				written.signalAll();
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+}
@@ -0,0 +1,160 @@
+package com.demo.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.ToIntFunction;
+
+/**
+ * Grouping map keyed by an int (usually the age) that many producer threads can append to at the
+ * same time, instead of grouping partitions separately and merging them one entry at a time into a
+ * HashMap like MapsDemo does.
+ *
+ * Every key has its own group with its own lock, so producers only contend when they append to the
+ * same key, and a whole partition of one key is appended under a single lock acquisition. Groups for
+ * keys in [0, 256) sit in an array and are installed with a CAS, other keys use a ConcurrentHashMap.
+ *
+ * Readers never lock. A group publishes its size through a volatile write after the elements are
+ * stored, so get() and snapshot() return read only views of everything appended up to that point
+ * while the writers carry on.
+ *
+ * 		ConcurrentIntGroupingMap<Person> byAge = new ConcurrentIntGroupingMap<>(Person::getAge);
+ * 		partitions.parallelStream().forEach(byAge::addAll);
+ * 		IntObjectMap<List<Person>> view = byAge.snapshot();
+ * */
+public final class ConcurrentIntGroupingMap<T> {
+
+	private static final int DENSE_LIMIT = IntObjectMap.DENSE_LIMIT;
+
+	private final ToIntFunction<? super T> classifier;
+	private final AtomicReferenceArray<Group<T>> dense = new AtomicReferenceArray<>(DENSE_LIMIT);
+	private final ConcurrentMap<Integer, Group<T>> sparse = new ConcurrentHashMap<>();
+
+	public ConcurrentIntGroupingMap(ToIntFunction<? super T> classifier) {
+		this.classifier = classifier;
+	}
+
+	public void add(T element) {
+		group(classifier.applyAsInt(element)).add(element);
+	}
+
+	/** Appends a partition, locking each key once for a run of elements with the same key. */
+	public void addAll(Collection<? extends T> elements) {
+		IntObjectMap<Group.Batch<T>> batches = new IntObjectMap<>();
+		for (T element : elements) {
+			batches.computeIfAbsent(classifier.applyAsInt(element), key -> new Group.Batch<>()).add(element);
+		}
+		batches.forEach((key, batch) -> group(key).addAll(batch.elements, batch.size));
+	}
+
+	/** Appends a partition that is already grouped, e.g. the result of IntKeyCollectors.groupingByInt(). */
+	public void addAll(IntObjectMap<? extends List<? extends T>> groups) {
+		groups.forEach((key, list) -> group(key).addAll(list.toArray(), list.size()));
+	}
+
+	/** Elements of one key appended so far, as a read only view. */
+	public List<T> get(int key) {
+		Group<T> group = find(key);
+		return group == null ? Collections.emptyList() : group.view();
+	}
+
+	public int size(int key) {
+		Group<T> group = find(key);
+		return group == null ? 0 : group.size;
+	}
+
+	/**
+	 * Views of all groups as they are at the time of the call. Writers are not blocked, and the
+	 * views don't change when more elements are appended later.
+	 * */
+	public IntObjectMap<List<T>> snapshot() {
+		IntObjectMap<List<T>> snapshot = new IntObjectMap<>();
+		for (int key = 0; key < DENSE_LIMIT; key++) {
+			Group<T> group = dense.get(key);
+			if (group != null && group.size > 0) {
+				snapshot.put(key, group.view());
+			}
+		}
+		sparse.forEach((key, group) -> {
+			if (group.size > 0) {
+				snapshot.put(key, group.view());
+			}
+		});
+		return snapshot;
+	}
+
+	private Group<T> find(int key) {
+		return key >= 0 && key < DENSE_LIMIT ? dense.get(key) : sparse.get(key);
+	}
+
+	private Group<T> group(int key) {
+		if (key >= 0 && key < DENSE_LIMIT) {
+			Group<T> group = dense.get(key);
+			if (group == null) {
+				Group<T> created = new Group<>();
+				group = dense.compareAndSet(key, null, created) ? created : dense.get(key);
+			}
+			return group;
+		}
+		return sparse.computeIfAbsent(key, k -> new Group<>());
+	}
+
+	/**
+	 * Append only list. Writers hold the group lock; the element array is replaced before the size
+	 * grows past the old capacity, so a reader that sees a size also sees an array holding that many
+	 * elements.
+	 * */
+	private static final class Group<T> {
+
+		private volatile Object[] elements = new Object[8];
+		private volatile int size;
+
+		synchronized void add(T element) {
+			int n = size;
+			Object[] array = ensureCapacity(n + 1);
+			array[n] = element;
+			size = n + 1;
+		}
+
+		synchronized void addAll(Object[] source, int count) {
+			int n = size;
+			Object[] array = ensureCapacity(n + count);
+			System.arraycopy(source, 0, array, n, count);
+			size = n + count;
+		}
+
+		@SuppressWarnings("unchecked")
+		List<T> view() {
+			int n = size;
+			Object[] array = elements;
+			return (List<T>) Collections.unmodifiableList(Arrays.asList(array).subList(0, n));
+		}
+
+		private Object[] ensureCapacity(int capacity) {
+			Object[] array = elements;
+			if (capacity > array.length) {
+				array = Arrays.copyOf(array, Math.max(capacity, array.length + (array.length >> 1)));
+				elements = array;
+			}
+			return array;
+		}
+
+		/** Thread confined buffer used to batch a partition before locking the group. */
+		private static final class Batch<T> {
+
+			private Object[] elements = new Object[8];
+			private int size;
+
+			void add(T element) {
+				if (size == elements.length) {
+					elements = Arrays.copyOf(elements, size * 2);
+				}
+				elements[size++] = element;
+			}
+		}
+	}
+}
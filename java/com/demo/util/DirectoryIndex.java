@@ -0,0 +1,332 @@
+package com.demo.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BiPredicate;
+
+/**
+ * An in-memory index of a directory tree that answers the listings of ReadingFilesAndDirectoriesDemo
+ * without touching the disk again.
+ *
+ * 		try(DirectoryIndex index = DirectoryIndex.build(dirPath)){
+ * 			index.list(dirPath, (p, attributes) -> attributes.isDirectory());		//Files.list(dirPath).filter(...)
+ * 			index.find((p, attributes) -> attributes.isDirectory());				//Files.walk(dirPath).filter(...)
+ * 		}
+ *
+ * The tree is scanned once with DirectoryWalker and every directory in it is registered with a
+ * WatchService. After that the index is kept up to date from the watch events: a created entry is read
+ * (with its subtree when it is a directory), a modified entry gets its attributes read again, and a
+ * deleted entry is dropped with its subtree. When the event queue of a directory overflows, only that
+ * directory's subtree is scanned again.
+ *
+ * Pending events are applied at the start of every query, so a query sees all the changes that the
+ * WatchService has reported by then. refresh() applies them explicitly, for example from a scheduler.
+ * hits() counts the queries answered from the index, refreshes() the events applied and rescans() the
+ * subtrees scanned again after an overflow.
+ *
+ * Note: the WatchService reports changes asynchronously, so a change made just before a query may not
+ * be visible yet. Symbolic links are indexed as links and not followed.
+ * */
+public final class DirectoryIndex implements Closeable {
+
+	private static final LinkOption[] NOFOLLOW = { LinkOption.NOFOLLOW_LINKS };
+
+	private final Path root;
+	private final WatchService watchService;
+	private final Map<Path, Entry> entries = new HashMap<>();
+	private final Map<Path, WatchKey> keys = new HashMap<>();
+
+	private long hits;
+	private long misses;
+	private long refreshes;
+	private long rescans;
+
+	private DirectoryIndex(Path root, WatchService watchService) {
+		this.root = root;
+		this.watchService = watchService;
+	}
+
+	public static DirectoryIndex build(Path root) throws IOException {
+		Path normalized = root.toAbsolutePath().normalize();
+		DirectoryIndex index = new DirectoryIndex(normalized, normalized.getFileSystem().newWatchService());
+		try {
+			synchronized (index) {
+				index.scan(normalized);
+			}
+		} catch (IOException | RuntimeException e) {
+			index.close();
+			throw e;
+		}
+		return index;
+	}
+
+	public Path root() {
+		return root;
+	}
+
+	/** The entries directly inside dir, like Files.list(dir). Empty when dir isn't an indexed directory. */
+	public synchronized List<Path> list(Path dir) throws IOException {
+		return list(dir, (path, attributes) -> true);
+	}
+
+	public synchronized List<Path> list(Path dir, BiPredicate<Path, BasicFileAttributes> filter) throws IOException {
+		applyPendingEvents();
+		Entry entry = lookup(dir);
+		if (entry == null || entry.children == null) {
+			return Collections.emptyList();
+		}
+		List<Path> result = new ArrayList<>();
+		for (Path child : entry.children) {
+			if (filter.test(child, entries.get(child).attributes)) {
+				result.add(child);
+			}
+		}
+		return result;
+	}
+
+	/** All indexed paths that pass the filter, like Files.walk(root).filter(...), in no particular order. */
+	public synchronized List<Path> find(BiPredicate<Path, BasicFileAttributes> filter) throws IOException {
+		applyPendingEvents();
+		hits++;
+		List<Path> result = new ArrayList<>();
+		for (Map.Entry<Path, Entry> entry : entries.entrySet()) {
+			if (filter.test(entry.getKey(), entry.getValue().attributes)) {
+				result.add(entry.getKey());
+			}
+		}
+		return result;
+	}
+
+	public synchronized Optional<BasicFileAttributes> attributes(Path path) throws IOException {
+		applyPendingEvents();
+		Entry entry = lookup(path);
+		return entry == null ? Optional.empty() : Optional.of(entry.attributes);
+	}
+
+	public synchronized boolean contains(Path path) throws IOException {
+		return attributes(path).isPresent();
+	}
+
+	/** Number of indexed paths, the root included. */
+	public synchronized int size() throws IOException {
+		applyPendingEvents();
+		return entries.size();
+	}
+
+	/** Applies the events the WatchService has reported so far and returns how many there were. */
+	public synchronized int refresh() throws IOException {
+		return applyPendingEvents();
+	}
+
+	/** Queries answered from the index. */
+	public synchronized long hits() {
+		return hits;
+	}
+
+	/** Queries for paths that are not in the index. */
+	public synchronized long misses() {
+		return misses;
+	}
+
+	/** Watch events applied to the index. */
+	public synchronized long refreshes() {
+		return refreshes;
+	}
+
+	/** Subtrees scanned again because their events overflowed. */
+	public synchronized long rescans() {
+		return rescans;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		watchService.close();
+		keys.clear();
+		entries.clear();
+	}
+
+	private Entry lookup(Path path) {
+		Entry entry = entries.get(path.toAbsolutePath().normalize());
+		if (entry == null) {
+			misses++;
+		} else {
+			hits++;
+		}
+		return entry;
+	}
+
+	private int applyPendingEvents() throws IOException {
+		int applied = 0;
+		WatchKey key;
+		try {
+			while ((key = watchService.poll()) != null) {
+				applied += apply(key);
+			}
+		} catch (ClosedWatchServiceException e) {
+			throw new IOException("DirectoryIndex is closed", e);
+		}
+		refreshes += applied;
+		return applied;
+	}
+
+	private int apply(WatchKey key) throws IOException {
+		Path dir = (Path) key.watchable();
+		int applied = 0;
+		for (WatchEvent<?> event : key.pollEvents()) {
+			applied++;
+			if (keys.get(dir) != key) {
+				//queued before dir was dropped or rescanned
+				continue;
+			}
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+				rescans++;
+				remove(dir);
+				scan(dir);
+				continue;
+			}
+			Path child = dir.resolve((Path) event.context());
+			if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+				remove(child);
+			} else if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+				remove(child);
+				scan(child);
+			} else {
+				update(child);
+			}
+		}
+		if (!key.reset() && keys.get(dir) == key) {
+			remove(dir);
+		}
+		return applied;
+	}
+
+	/** Re-reads the attributes of a modified entry. Directory contents change through their own events. */
+	private void update(Path path) throws IOException {
+		Entry entry = entries.get(path);
+		BasicFileAttributes attributes = readAttributes(path);
+		if (attributes == null) {
+			remove(path);
+		} else if (entry == null || entry.attributes.isDirectory() != attributes.isDirectory()) {
+			remove(path);
+			scan(path);
+		} else {
+			entry.attributes = attributes;
+		}
+	}
+
+	/**
+	 * Indexes path and, when it is a directory, its subtree, and registers the directories. The walker
+	 * visits a directory before it lists it, so every directory is registered before it is listed: an entry
+	 * created after the listing is reported by an event, one created before it is in the listing.
+	 * */
+	private void scan(Path path) throws IOException {
+		if (readAttributes(path) == null) {
+			return;
+		}
+		Queue<Object[]> found = new ConcurrentLinkedQueue<>();
+		Queue<Object[]> registered = new ConcurrentLinkedQueue<>();
+		Queue<Path> gone = new ConcurrentLinkedQueue<>();
+		Queue<IOException> failures = new ConcurrentLinkedQueue<>();
+		try {
+			DirectoryWalker.of(path).walk((p, attributes, depth) -> {
+				found.add(new Object[] { p, attributes });
+				if (attributes.isDirectory()) {
+					try {
+						registered.add(new Object[] { p, register(p) });
+					} catch (NoSuchFileException e) {
+						gone.add(p);
+					} catch (IOException e) {
+						failures.add(e);
+					}
+				}
+			});
+		} catch (NoSuchFileException e) {
+			//deleted while it was scanned; the delete events remove what was indexed
+		}
+		for (Object[] pathAndAttributes : found) {
+			entries.put((Path) pathAndAttributes[0], new Entry((BasicFileAttributes) pathAndAttributes[1]));
+		}
+		for (Object[] pathAndAttributes : found) {
+			Path p = (Path) pathAndAttributes[0];
+			Entry parent = p.equals(root) ? null : entries.get(p.getParent());
+			if (parent != null && parent.children != null) {
+				parent.children.add(p);
+			}
+		}
+		for (Object[] directoryAndKey : registered) {
+			keys.put((Path) directoryAndKey[0], (WatchKey) directoryAndKey[1]);
+		}
+		for (Path directory : gone) {
+			remove(directory);
+		}
+		IOException failure = failures.poll();
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	private WatchKey register(Path directory) throws IOException {
+		return directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+				StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+	}
+
+	/** Drops path and its subtree from the index and cancels their watch keys. */
+	private void remove(Path path) {
+		Entry entry = entries.remove(path);
+		if (entry == null) {
+			return;
+		}
+		Entry parent = path.equals(root) ? null : entries.get(path.getParent());
+		if (parent != null && parent.children != null) {
+			parent.children.remove(path);
+		}
+		if (entry.children != null) {
+			for (Path child : new ArrayList<>(entry.children)) {
+				remove(child);
+			}
+			WatchKey key = keys.remove(path);
+			if (key != null) {
+				key.cancel();
+			}
+		}
+	}
+
+	private static BasicFileAttributes readAttributes(Path path) throws IOException {
+		try {
+			return Files.readAttributes(path, BasicFileAttributes.class, NOFOLLOW);
+		} catch (NoSuchFileException e) {
+			return null;
+		}
+	}
+
+	private static final class Entry {
+
+		BasicFileAttributes attributes;
+		final Set<Path> children;
+
+		Entry(BasicFileAttributes attributes) {
+			this.attributes = attributes;
+			this.children = attributes.isDirectory() ? new LinkedHashSet<>() : null;
+		}
+	}
+}
@@ -0,0 +1,208 @@
+package com.demo.util;
+
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+
+/**
+ * Walks a directory tree in parallel on a ForkJoinPool, one task per directory, so idle workers steal
+ * whole subtrees from busy ones.
+ *
+ * 		Files.walk(dir, 3).filter(p -> p.toFile().isDirectory())
+ *
+ * creates a File and makes an extra stat call per entry on top of the one Files.walk() already made, all
+ * on one thread. The same walk here
+ *
+ * 		DirectoryWalker.of(dir).maxDepth(3).filter((p, attributes) -> attributes.isDirectory()).toList()
+ *
+ * reads the BasicFileAttributes of every entry once, while its directory is listed, and uses them both
+ * for the filter and to decide whether to descend into the entry.
+ *
+ * The depth works like Files.walk(): the root is at depth 0 and is reported too if it passes the filter.
+ * Symbolic links are not followed unless followLinks(true) is set; then every directory is walked at
+ * most once, which also stops link cycles.
+ *
+ * toList() walks the whole tree before it returns, so the first path is only available at the end and
+ * every matching path is held in memory; walk() hands each entry to a visitor as soon as it is read, and
+ * count() keeps only a counter.
+ *
+ * Note: the visitor is called from several threads at once and in no particular order. Directories that
+ * can't be read don't stop the walk; the first failure is thrown from walk() when the walk is done, with
+ * the others added as suppressed exceptions.
+ * */
+public final class DirectoryWalker {
+
+	/** Called for every entry that passes the filter. May be called concurrently. */
+	@FunctionalInterface
+	public interface EntryVisitor {
+		void visit(Path path, BasicFileAttributes attributes, int depth);
+	}
+
+	private final Path root;
+	private int maxDepth = Integer.MAX_VALUE;
+	private boolean followLinks;
+	private BiPredicate<Path, BasicFileAttributes> filter = (path, attributes) -> true;
+	private BiPredicate<Path, BasicFileAttributes> descend = (path, attributes) -> true;
+	private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+	private DirectoryWalker(Path root) {
+		this.root = root;
+	}
+
+	public static DirectoryWalker of(Path root) {
+		return new DirectoryWalker(root);
+	}
+
+	public DirectoryWalker maxDepth(int maxDepth) {
+		if (maxDepth < 0) {
+			throw new IllegalArgumentException("maxDepth must not be negative: " + maxDepth);
+		}
+		this.maxDepth = maxDepth;
+		return this;
+	}
+
+	public DirectoryWalker followLinks(boolean followLinks) {
+		this.followLinks = followLinks;
+		return this;
+	}
+
+	/** Which entries are reported. Doesn't stop the walk from descending into directories it rejects. */
+	public DirectoryWalker filter(BiPredicate<Path, BasicFileAttributes> filter) {
+		this.filter = filter;
+		return this;
+	}
+
+	/** Which directories are descended into, for example to skip .git or build directories. */
+	public DirectoryWalker descendInto(BiPredicate<Path, BasicFileAttributes> descend) {
+		this.descend = descend;
+		return this;
+	}
+
+	public DirectoryWalker pool(ForkJoinPool pool) {
+		this.pool = pool;
+		return this;
+	}
+
+	/** Walks the whole tree first, then returns all the matching paths, in no particular order. */
+	public List<Path> toList() throws IOException {
+		Queue<Path> paths = new ConcurrentLinkedQueue<>();
+		walk((path, attributes, depth) -> paths.add(path));
+		return new ArrayList<>(paths);
+	}
+
+	/** Walks the tree and returns the number of matching entries, without keeping the paths. */
+	public long count() throws IOException {
+		LongAdder count = new LongAdder();
+		walk((path, attributes, depth) -> count.increment());
+		return count.sum();
+	}
+
+	public void walk(EntryVisitor visitor) throws IOException {
+		LinkOption[] options = linkOptions();
+		BasicFileAttributes attributes = Files.readAttributes(root, BasicFileAttributes.class, options);
+		Walk walk = new Walk(visitor, options);
+		if (filter.test(root, attributes)) {
+			visitor.visit(root, attributes, 0);
+		}
+		if (attributes.isDirectory() && maxDepth > 0 && walk.firstVisit(attributes)) {
+			pool.invoke(new WalkTask(walk, root, 0));
+		}
+		walk.rethrow();
+	}
+
+	private LinkOption[] linkOptions() {
+		return followLinks ? new LinkOption[0] : new LinkOption[] { LinkOption.NOFOLLOW_LINKS };
+	}
+
+	/** The state shared by the tasks of one walk. */
+	private final class Walk {
+
+		final EntryVisitor visitor;
+		final LinkOption[] options;
+		final Set<Object> visited = followLinks ? ConcurrentHashMap.newKeySet() : null;
+		final Queue<IOException> failures = new ConcurrentLinkedQueue<>();
+
+		Walk(EntryVisitor visitor, LinkOption[] options) {
+			this.visitor = visitor;
+			this.options = options;
+		}
+
+		/** False when links are followed and the directory has been walked already. */
+		boolean firstVisit(BasicFileAttributes attributes) {
+			Object key = attributes.fileKey();
+			return visited == null || key == null || visited.add(key);
+		}
+
+		void rethrow() throws IOException {
+			IOException first = failures.poll();
+			if (first != null) {
+				for (IOException other : failures) {
+					first.addSuppressed(other);
+				}
+				throw first;
+			}
+		}
+	}
+
+	private final class WalkTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final transient Walk walk;
+		private final transient Path directory;
+		private final int depth;
+
+		WalkTask(Walk walk, Path directory, int depth) {
+			this.walk = walk;
+			this.directory = directory;
+			this.depth = depth;
+		}
+
+		@Override
+		protected void compute() {
+			int childDepth = depth + 1;
+			List<WalkTask> subtasks = new ArrayList<>();
+			try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+				for (Path entry : entries) {
+					BasicFileAttributes attributes;
+					try {
+						attributes = Files.readAttributes(entry, BasicFileAttributes.class, walk.options);
+					} catch (IOException e) {
+						walk.failures.add(e);
+						continue;
+					}
+					if (filter.test(entry, attributes)) {
+						walk.visitor.visit(entry, attributes, childDepth);
+					}
+					if (attributes.isDirectory() && childDepth < maxDepth && descend.test(entry, attributes)
+							&& walk.firstVisit(attributes)) {
+						WalkTask subtask = new WalkTask(walk, entry, childDepth);
+						subtask.fork();
+						subtasks.add(subtask);
+					}
+				}
+			} catch (IOException e) {
+				walk.failures.add(e);
+			} catch (DirectoryIteratorException e) {
+				walk.failures.add(e.getCause());
+			}
+			for (WalkTask subtask : subtasks) {
+				subtask.join();
+			}
+		}
+	}
+}
@@ -0,0 +1,300 @@
+package com.demo.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.demo.domain.Person;
+
+/**
+ * Sorts persons files that don't fit in the heap.
+ *
+ * The input is read lazily in runs of at most runSize persons. Every run is sorted in memory and
+ * spilled to a temporary file in the persons text format. The runs are then merged with a priority
+ * queue of their heads. When there are more runs than fanIn, groups of fanIn runs are first merged into
+ * longer runs, so that at most fanIn files are open at the same time.
+ *
+ * 		ExternalPersonSort sort = new ExternalPersonSort(Comparator.comparing(Person::getName))
+ * 									.memoryBudget(256L << 20)
+ * 									.fanIn(64);
+ * 		sort.sort(input, output);
+ *
+ * 		try(Stream<Person> sorted = sort.stream(input)){
+ * 			sorted.limit(100).forEach(...);
+ * 		}
+ *
+ * The sort is stable. The temporary files go to tempDirectory() (the system default if it is not set)
+ * and are deleted when sort() returns or when the stream is closed.
+ * */
+public final class ExternalPersonSort {
+
+	/** Rough heap cost of one loaded Person with its name, used to turn a memory budget into a run size. */
+	static final int ESTIMATED_BYTES_PER_PERSON = 96;
+
+	private final Comparator<? super Person> comparator;
+	private final Consumer<List<Person>> runSorter;
+	private long memoryBudget = Runtime.getRuntime().maxMemory() / 4;
+	private int runSize;
+	private int fanIn = 64;
+	private Path tempDirectory;
+
+	public ExternalPersonSort(Comparator<? super Person> comparator) {
+		this.comparator = comparator;
+		this.runSorter = run -> run.sort(comparator);
+	}
+
+	/** Sorts the runs with KeySort, which extracts the keys once per person. */
+	public ExternalPersonSort(KeySort<Person> keySort) {
+		this.comparator = keySort.comparator();
+		this.runSorter = keySort::sort;
+	}
+
+	/** Heap to use for one run, in bytes. Ignored when runSize() is set. */
+	public ExternalPersonSort memoryBudget(long bytes) {
+		if (bytes <= 0) {
+			throw new IllegalArgumentException("memoryBudget must be positive: " + bytes);
+		}
+		this.memoryBudget = bytes;
+		return this;
+	}
+
+	/** Maximum number of persons per run. */
+	public ExternalPersonSort runSize(int persons) {
+		if (persons <= 0) {
+			throw new IllegalArgumentException("runSize must be positive: " + persons);
+		}
+		this.runSize = persons;
+		return this;
+	}
+
+	/** Maximum number of runs merged at once. */
+	public ExternalPersonSort fanIn(int runs) {
+		if (runs < 2) {
+			throw new IllegalArgumentException("fanIn must be at least 2: " + runs);
+		}
+		this.fanIn = runs;
+		return this;
+	}
+
+	public ExternalPersonSort tempDirectory(Path directory) {
+		this.tempDirectory = directory;
+		return this;
+	}
+
+	int effectiveRunSize() {
+		if (runSize > 0) {
+			return runSize;
+		}
+		return (int) Math.max(1, Math.min(Integer.MAX_VALUE - 8, memoryBudget / ESTIMATED_BYTES_PER_PERSON));
+	}
+
+	/** Sorts input into output, both in the persons text format. */
+	public void sort(Path input, Path output) throws IOException {
+		try (Stream<Person> sorted = stream(input); Writer writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+			Iterator<Person> iterator = sorted.iterator();
+			while (iterator.hasNext()) {
+				write(writer, iterator.next());
+			}
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Returns the sorted persons of input as a lazy stream. The runs are written before this method
+	 * returns; the final merge happens while the stream is consumed.
+	 * */
+	public Stream<Person> stream(Path input) throws IOException {
+		// every run file created, intermediate merges included, so none is left behind
+		List<Path> created = new ArrayList<>();
+		List<Path> runs = new ArrayList<>();
+		try {
+			spillRuns(input, runs, created);
+			while (runs.size() > fanIn) {
+				List<Path> merged = new ArrayList<>();
+				for (int from = 0; from < runs.size(); from += fanIn) {
+					List<Path> group = runs.subList(from, Math.min(runs.size(), from + fanIn));
+					Path run = createRun(created);
+					merged.add(run);
+					try (RunMerger merger = new RunMerger(group, comparator);
+							Writer writer = Files.newBufferedWriter(run, StandardCharsets.UTF_8)) {
+						while (merger.hasNext()) {
+							write(writer, merger.next());
+						}
+					}
+					deleteAll(group);
+				}
+				runs = merged;
+			}
+			RunMerger merger = new RunMerger(runs, comparator);
+			return StreamSupport
+					.stream(Spliterators.spliteratorUnknownSize(merger, Spliterator.ORDERED | Spliterator.NONNULL), false)
+					.onClose(() -> {
+						try {
+							merger.close();
+							deleteAll(created);
+						} catch (IOException e) {
+							throw new UncheckedIOException(e);
+						}
+					});
+		} catch (IOException | RuntimeException e) {
+			try {
+				deleteAll(created);
+			} catch (IOException suppressed) {
+				e.addSuppressed(suppressed);
+			}
+			throw e;
+		}
+	}
+
+	private void spillRuns(Path input, List<Path> runs, List<Path> created) throws IOException {
+		int size = effectiveRunSize();
+		List<Person> run = new ArrayList<>(Math.min(size, 1 << 16));
+		try (Stream<Person> persons = MappedPersonLoader.stream(input)) {
+			Iterator<Person> iterator = persons.iterator();
+			while (iterator.hasNext()) {
+				run.add(iterator.next());
+				if (run.size() == size) {
+					runs.add(spill(run, created));
+					run.clear();
+				}
+			}
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		if (!run.isEmpty() || runs.isEmpty()) {
+			runs.add(spill(run, created));
+		}
+	}
+
+	private Path spill(List<Person> run, List<Path> created) throws IOException {
+		runSorter.accept(run);
+		Path file = createRun(created);
+		try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			for (Person person : run) {
+				write(writer, person);
+			}
+		}
+		return file;
+	}
+
+	private Path createRun(List<Path> created) throws IOException {
+		Path run = tempDirectory == null ? Files.createTempFile("persons-run-", ".txt")
+				: Files.createTempFile(tempDirectory, "persons-run-", ".txt");
+		created.add(run);
+		return run;
+	}
+
+	static void write(Writer writer, Person person) throws IOException {
+		writer.write(person.getName());
+		writer.write(' ');
+		writer.write(Integer.toString(person.getAge()));
+		if (person.getGender() != null) {
+			writer.write(' ');
+			writer.write(person.getGender());
+		}
+		writer.write('\n');
+	}
+
+	/** Tries to delete every file, even after a failure, and throws the first failure. */
+	private static void deleteAll(List<Path> files) throws IOException {
+		IOException failure = null;
+		for (Path file : files) {
+			try {
+				Files.deleteIfExists(file);
+			} catch (IOException e) {
+				if (failure == null) {
+					failure = e;
+				} else {
+					failure.addSuppressed(e);
+				}
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * K-way merge of sorted run files. Ties are broken by the run index, which keeps the merge stable
+	 * because earlier runs hold earlier input.
+	 * */
+	private static final class RunMerger implements Iterator<Person>, AutoCloseable {
+
+		private final List<Stream<Person>> streams = new ArrayList<>();
+		private final List<Iterator<Person>> iterators = new ArrayList<>();
+		private final PriorityQueue<Head> heads;
+
+		RunMerger(List<Path> runs, Comparator<? super Person> comparator) throws IOException {
+			Comparator<Head> byPerson = (a, b) -> comparator.compare(a.person, b.person);
+			heads = new PriorityQueue<>(Math.max(1, runs.size()), byPerson.thenComparingInt(head -> head.run));
+			try {
+				for (Path run : runs) {
+					Stream<Person> stream = MappedPersonLoader.stream(run);
+					streams.add(stream);
+					Iterator<Person> iterator = stream.iterator();
+					iterators.add(iterator);
+					if (iterator.hasNext()) {
+						heads.add(new Head(iterator.next(), iterators.size() - 1));
+					}
+				}
+			} catch (IOException | RuntimeException e) {
+				close();
+				throw e;
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return !heads.isEmpty();
+		}
+
+		@Override
+		public Person next() {
+			Head head = heads.poll();
+			if (head == null) {
+				throw new NoSuchElementException();
+			}
+			Person person = head.person;
+			Iterator<Person> iterator = iterators.get(head.run);
+			if (iterator.hasNext()) {
+				head.person = iterator.next();
+				heads.add(head);
+			}
+			return person;
+		}
+
+		@Override
+		public void close() {
+			for (Stream<Person> stream : streams) {
+				stream.close();
+			}
+			streams.clear();
+		}
+	}
+
+	private static final class Head {
+
+		Person person;
+		final int run;
+
+		Head(Person person, int run) {
+			this.person = person;
+			this.run = run;
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package com.demo.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Splits a text file into byte ranges that start and end on line boundaries.
+ *
+ * The nominal split points are spread evenly over the file, then every split point is moved
+ * forward to the byte after the next '\n'. Only a small block is read with a positional read
+ * for each split point, so computing the ranges costs almost nothing even on multi-GB files.
+ *
+ * 		long[] bounds = FileChunks.split(channel, 8);
+ * 		// chunk i is [bounds[i], bounds[i + 1])
+ * */
+public final class FileChunks {
+
+	private static final int PROBE_SIZE = 4096;
+
+	private FileChunks() {
+	}
+
+	/**
+	 * Returns chunks + 1 ascending offsets (fewer when chunks collapse into each other on long
+	 * lines). The first offset is 0 and the last one is the file size.
+	 * */
+	public static long[] split(FileChannel channel, int chunks) throws IOException {
+		return split(channel, 0, channel.size(), chunks);
+	}
+
+	/**
+	 * Same as split(channel, chunks) but restricted to [start, end). start must be a line start.
+	 * */
+	public static long[] split(FileChannel channel, long start, long end, int chunks) throws IOException {
+		if (chunks < 1) {
+			throw new IllegalArgumentException("chunks must be positive: " + chunks);
+		}
+		long length = end - start;
+		long[] bounds = new long[chunks + 1];
+		int count = 0;
+		bounds[count++] = start;
+		ByteBuffer probe = ByteBuffer.allocate(PROBE_SIZE);
+		for (int i = 1; i < chunks; i++) {
+			long nominal = start + length * i / chunks;
+			if (nominal <= bounds[count - 1]) {
+				continue;
+			}
+			long aligned = nextLineStart(channel, nominal, end, probe);
+			if (aligned > bounds[count - 1] && aligned < end) {
+				bounds[count++] = aligned;
+			}
+		}
+		bounds[count++] = end;
+		if (count == bounds.length) {
+			return bounds;
+		}
+		long[] trimmed = new long[count];
+		System.arraycopy(bounds, 0, trimmed, 0, count);
+		return trimmed;
+	}
+
+	/**
+	 * Returns the offset of the first line that starts at or after position, or end if there is none.
+	 * A position right after a '\n' is already a line start.
+	 * */
+	public static long nextLineStart(FileChannel channel, long position, long end) throws IOException {
+		return nextLineStart(channel, position, end, ByteBuffer.allocate(PROBE_SIZE));
+	}
+
+	private static long nextLineStart(FileChannel channel, long position, long end, ByteBuffer probe)
+			throws IOException {
+		if (position <= 0) {
+			return 0;
+		}
+		long offset = position - 1;
+		while (offset < end) {
+			probe.clear();
+			if (end - offset < probe.capacity()) {
+				probe.limit((int) (end - offset));
+			}
+			int read = channel.read(probe, offset);
+			if (read <= 0) {
+				return end;
+			}
+			for (int i = 0; i < read; i++) {
+				if (probe.get(i) == '\n') {
+					return offset + i + 1;
+				}
+			}
+			offset += read;
+		}
+		return end;
+	}
+}
@@ -0,0 +1,171 @@
+package com.demo.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Counts per primitive int key, the unboxed counterpart of Map<Integer, Long> produced by
+ * groupingBy(..., counting()).
+ *
+ * Like IntObjectMap, keys in [0, DENSE_LIMIT) are counted in a plain long[] and other keys go to an
+ * open addressing table. A key whose count is 0 is considered absent.
+ * */
+public final class IntCountMap {
+
+	/** Receives a key and its count. */
+	@FunctionalInterface
+	public interface IntCountConsumer {
+		void accept(int key, long count);
+	}
+
+	private long[] dense;
+	private int denseCount;
+
+	private int[] keys;
+	private long[] counts;
+	private int sparseCount;
+
+	public IntCountMap() {
+	}
+
+	public int size() {
+		return denseCount + sparseCount;
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	public long get(int key) {
+		if (key >= 0 && key < IntObjectMap.DENSE_LIMIT) {
+			return dense == null ? 0 : dense[key];
+		}
+		return counts == null ? 0 : counts[find(key)];
+	}
+
+	public void increment(int key) {
+		add(key, 1);
+	}
+
+	/** Adds a positive amount to the count of key. */
+	public void add(int key, long amount) {
+		if (amount <= 0) {
+			throw new IllegalArgumentException("amount must be positive: " + amount);
+		}
+		if (key >= 0 && key < IntObjectMap.DENSE_LIMIT) {
+			if (dense == null) {
+				dense = new long[IntObjectMap.DENSE_LIMIT];
+			}
+			if (dense[key] == 0) {
+				denseCount++;
+			}
+			dense[key] += amount;
+			return;
+		}
+		if (counts == null) {
+			keys = new int[16];
+			counts = new long[16];
+		}
+		int slot = find(key);
+		if (counts[slot] == 0) {
+			keys[slot] = key;
+			counts[slot] = amount;
+			if (++sparseCount * 2 > counts.length) {
+				resize();
+			}
+		} else {
+			counts[slot] += amount;
+		}
+	}
+
+	/** Adds all counts of other to this map. */
+	public IntCountMap merge(IntCountMap other) {
+		if (other.dense != null) {
+			for (int key = 0; key < other.dense.length; key++) {
+				if (other.dense[key] != 0) {
+					add(key, other.dense[key]);
+				}
+			}
+		}
+		if (other.counts != null) {
+			for (int slot = 0; slot < other.counts.length; slot++) {
+				if (other.counts[slot] != 0) {
+					add(other.keys[slot], other.counts[slot]);
+				}
+			}
+		}
+		return this;
+	}
+
+	/** The keys in ascending order. */
+	public int[] keys() {
+		int[] result = new int[size()];
+		int count = 0;
+		if (dense != null) {
+			for (int key = 0; key < dense.length; key++) {
+				if (dense[key] != 0) {
+					result[count++] = key;
+				}
+			}
+		}
+		if (counts != null) {
+			for (int slot = 0; slot < counts.length; slot++) {
+				if (counts[slot] != 0) {
+					result[count++] = keys[slot];
+				}
+			}
+			Arrays.sort(result);
+		}
+		return result;
+	}
+
+	/** Visits the counts in ascending key order. */
+	public void forEach(IntCountConsumer action) {
+		for (int key : keys()) {
+			action.accept(key, get(key));
+		}
+	}
+
+	/** Boxes the counts into a regular map, for code that expects Map<Integer, Long>. */
+	public Map<Integer, Long> toMap() {
+		Map<Integer, Long> map = new HashMap<>(size() * 4 / 3 + 1);
+		forEach(map::put);
+		return map;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("{");
+		forEach((key, count) -> {
+			if (sb.length() > 1) {
+				sb.append(", ");
+			}
+			sb.append(key).append('=').append(count);
+		});
+		return sb.append('}').toString();
+	}
+
+	private int find(int key) {
+		int mask = counts.length - 1;
+		int slot = IntObjectMap.mix(key) & mask;
+		while (counts[slot] != 0 && keys[slot] != key) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private void resize() {
+		int[] oldKeys = keys;
+		long[] oldCounts = counts;
+		keys = new int[oldKeys.length * 2];
+		counts = new long[oldCounts.length * 2];
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldCounts[i] != 0) {
+				int slot = find(oldKeys[i]);
+				keys[slot] = oldKeys[i];
+				counts[slot] = oldCounts[i];
+			}
+		}
+	}
+}
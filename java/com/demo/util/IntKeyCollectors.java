@@ -0,0 +1,85 @@
+package com.demo.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collector;
+
+/**
+ * Grouping collectors for int keys, the unboxed counterparts of Collectors.groupingBy(Person::getAge, ...).
+ *
+ * 		IntObjectMap<List<Person>> byAge = persons.stream().collect(IntKeyCollectors.groupingByInt(Person::getAge));
+ * 		IntCountMap countByAge = persons.stream().collect(IntKeyCollectors.countingByInt(Person::getAge));
+ * 		IntObjectMap<List<String>> namesByAge = persons.stream()
+ * 								.collect(IntKeyCollectors.mappingByInt(Person::getAge, Person::getName));
+ *
+ * The keys are never boxed and countingByInt() keeps a long per key instead of a Long. The results
+ * are backed by IntObjectMap/IntCountMap, which use a dense array for small keys like ages.
+ *
+ * Note: all collectors work with parallel streams. The combiner merges the right map into the left
+ * one key by key, so the lists keep the encounter order.
+ * */
+public final class IntKeyCollectors {
+
+	private IntKeyCollectors() {
+	}
+
+	public static <T> Collector<T, ?, IntObjectMap<List<T>>> groupingByInt(ToIntFunction<? super T> classifier) {
+		return Collector.of(IntObjectMap::new,
+				(map, element) -> map.computeIfAbsent(classifier.applyAsInt(element), key -> new ArrayList<>())
+						.add(element),
+				(left, right) -> left.merge(right, IntKeyCollectors::concat),
+				Collector.Characteristics.IDENTITY_FINISH);
+	}
+
+	/**
+	 * Groups by an int key and reduces every group with the downstream collector, like
+	 * groupingBy(classifier, downstream).
+	 * */
+	public static <T, A, D> Collector<T, ?, IntObjectMap<D>> groupingByInt(ToIntFunction<? super T> classifier,
+			Collector<? super T, A, D> downstream) {
+		Supplier<A> downstreamSupplier = downstream.supplier();
+		BiConsumer<A, ? super T> downstreamAccumulator = downstream.accumulator();
+		BinaryOperator<A> downstreamCombiner = downstream.combiner();
+		Function<A, D> downstreamFinisher = downstream.finisher();
+
+		BiConsumer<IntObjectMap<A>, T> accumulator = (map, element) -> downstreamAccumulator
+				.accept(map.computeIfAbsent(classifier.applyAsInt(element), key -> downstreamSupplier.get()), element);
+		BinaryOperator<IntObjectMap<A>> combiner = (left, right) -> left.merge(right, downstreamCombiner);
+
+		if (downstream.characteristics().contains(Collector.Characteristics.IDENTITY_FINISH)) {
+			@SuppressWarnings("unchecked")
+			Function<IntObjectMap<A>, IntObjectMap<D>> identity = map -> (IntObjectMap<D>) map;
+			return Collector.of(IntObjectMap::new, accumulator, combiner, identity);
+		}
+		return Collector.of(IntObjectMap::new, accumulator, combiner, map -> map.mapValues(downstreamFinisher));
+	}
+
+	/** Number of elements per int key, like groupingBy(classifier, counting()). */
+	public static <T> Collector<T, ?, IntCountMap> countingByInt(ToIntFunction<? super T> classifier) {
+		return Collector.of(IntCountMap::new,
+				(map, element) -> map.increment(classifier.applyAsInt(element)),
+				IntCountMap::merge,
+				Collector.Characteristics.IDENTITY_FINISH);
+	}
+
+	/** Mapped values per int key, like groupingBy(classifier, mapping(mapper, toList())). */
+	public static <T, R> Collector<T, ?, IntObjectMap<List<R>>> mappingByInt(ToIntFunction<? super T> classifier,
+			Function<? super T, ? extends R> mapper) {
+		return Collector.of(IntObjectMap::new,
+				(IntObjectMap<List<R>> map, T element) -> map
+						.computeIfAbsent(classifier.applyAsInt(element), key -> new ArrayList<>())
+						.add(mapper.apply(element)),
+				(left, right) -> left.merge(right, IntKeyCollectors::concat),
+				Collector.Characteristics.IDENTITY_FINISH);
+	}
+
+	private static <E> List<E> concat(List<E> left, List<E> right) {
+		left.addAll(right);
+		return left;
+	}
+}
@@ -0,0 +1,335 @@
+package com.demo.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Map from primitive int keys to non-null values, so grouping by an int (like Person::getAge)
+ * doesn't box every key into an Integer.
+ *
+ * Keys in [0, DENSE_LIMIT) live in a plain array indexed by the key, which covers ages and other
+ * small ranges without hashing at all. Other keys go to an open addressing table with linear probing.
+ *
+ * forEach() and keys() visit the keys in ascending order, the same order a HashMap<Integer, V>
+ * happens to show for small keys.
+ * */
+public final class IntObjectMap<V> {
+
+	static final int DENSE_LIMIT = 256;
+
+	/** Receives a key and its value, without boxing the key. */
+	@FunctionalInterface
+	public interface IntEntryConsumer<V> {
+		void accept(int key, V value);
+	}
+
+	private Object[] dense;
+	private int denseCount;
+
+	private int[] keys;
+	private Object[] values;
+	private int sparseCount;
+
+	public IntObjectMap() {
+	}
+
+	public int size() {
+		return denseCount + sparseCount;
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	public boolean containsKey(int key) {
+		return get(key) != null;
+	}
+
+	@SuppressWarnings("unchecked")
+	public V get(int key) {
+		if (key >= 0 && key < DENSE_LIMIT) {
+			return dense == null ? null : (V) dense[key];
+		}
+		if (values == null) {
+			return null;
+		}
+		int slot = find(key);
+		return (V) values[slot];
+	}
+
+	public V getOrDefault(int key, V defaultValue) {
+		V value = get(key);
+		return value != null ? value : defaultValue;
+	}
+
+	/** Returns the previous value, or null. */
+	public V put(int key, V value) {
+		if (value == null) {
+			throw new NullPointerException("IntObjectMap does not accept null values");
+		}
+		V previous;
+		if (key >= 0 && key < DENSE_LIMIT) {
+			previous = denseSlot(key, value);
+		} else {
+			previous = sparseSlot(key, value);
+		}
+		return previous;
+	}
+
+	@SuppressWarnings("unchecked")
+	public V computeIfAbsent(int key, IntFunction<? extends V> mappingFunction) {
+		if (key >= 0 && key < DENSE_LIMIT) {
+			if (dense == null) {
+				dense = new Object[DENSE_LIMIT];
+			}
+			Object value = dense[key];
+			if (value == null) {
+				value = mappingFunction.apply(key);
+				if (value != null) {
+					dense[key] = value;
+					denseCount++;
+				}
+			}
+			return (V) value;
+		}
+		if (values != null) {
+			int slot = find(key);
+			if (values[slot] != null) {
+				return (V) values[slot];
+			}
+		}
+		V value = mappingFunction.apply(key);
+		if (value != null) {
+			sparseSlot(key, value);
+		}
+		return value;
+	}
+
+	/**
+	 * Merges every entry of other into this map, combining the values of keys present in both. Walks the
+	 * slots of other directly, in no particular order, with one lookup per entry.
+	 * */
+	@SuppressWarnings("unchecked")
+	public IntObjectMap<V> merge(IntObjectMap<V> other, BinaryOperator<V> combiner) {
+		if (other.dense != null) {
+			for (int key = 0; key < DENSE_LIMIT; key++) {
+				V value = (V) other.dense[key];
+				if (value != null) {
+					V existing = dense == null ? null : (V) dense[key];
+					denseSlot(key, combine(existing, value, combiner));
+				}
+			}
+		}
+		if (other.values != null) {
+			for (int slot = 0; slot < other.values.length; slot++) {
+				V value = (V) other.values[slot];
+				if (value != null) {
+					mergeSparse(other.keys[slot], value, combiner);
+				}
+			}
+		}
+		return this;
+	}
+
+	/** Returns a new map with every value transformed. */
+	public <R> IntObjectMap<R> mapValues(Function<? super V, ? extends R> function) {
+		IntObjectMap<R> result = new IntObjectMap<>();
+		forEachSlot((key, value) -> result.put(key, function.apply(value)));
+		return result;
+	}
+
+	/** The keys in ascending order. */
+	public int[] keys() {
+		int[] result = new int[size()];
+		int count = 0;
+		int negatives = 0;
+		if (keys != null) {
+			for (int slot = 0; slot < keys.length; slot++) {
+				if (values[slot] != null) {
+					result[count++] = keys[slot];
+				}
+			}
+			Arrays.sort(result, 0, count);
+			while (negatives < count && result[negatives] < 0) {
+				negatives++;
+			}
+		}
+		if (denseCount == 0) {
+			return result;
+		}
+		int sparse = count;
+		int[] sorted = new int[result.length];
+		System.arraycopy(result, 0, sorted, 0, negatives);
+		int n = negatives;
+		for (int key = 0; key < DENSE_LIMIT; key++) {
+			if (dense[key] != null) {
+				sorted[n++] = key;
+			}
+		}
+		System.arraycopy(result, negatives, sorted, n, sparse - negatives);
+		return sorted;
+	}
+
+	/**
+	 * Visits the entries in ascending key order. The dense keys are visited straight from their array;
+	 * only keys outside [0, DENSE_LIMIT) are sorted, as (key, slot) pairs, so no key is looked up again.
+	 * */
+	@SuppressWarnings("unchecked")
+	public void forEach(IntEntryConsumer<? super V> action) {
+		long[] sparse = new long[sparseCount];
+		int count = 0;
+		if (values != null) {
+			for (int slot = 0; slot < values.length; slot++) {
+				if (values[slot] != null) {
+					sparse[count++] = (long) keys[slot] << 32 | slot;
+				}
+			}
+			Arrays.sort(sparse);
+		}
+		int i = 0;
+		for (; i < count && (int) (sparse[i] >> 32) < 0; i++) {
+			action.accept((int) (sparse[i] >> 32), (V) values[(int) sparse[i]]);
+		}
+		if (dense != null) {
+			for (int key = 0; key < DENSE_LIMIT; key++) {
+				if (dense[key] != null) {
+					action.accept(key, (V) dense[key]);
+				}
+			}
+		}
+		for (; i < count; i++) {
+			action.accept((int) (sparse[i] >> 32), (V) values[(int) sparse[i]]);
+		}
+	}
+
+	/** Boxes the keys into a regular map, for code that expects Map<Integer, V>. */
+	public Map<Integer, V> toMap() {
+		Map<Integer, V> map = new HashMap<>(size() * 4 / 3 + 1);
+		forEachSlot(map::put);
+		return map;
+	}
+
+	/** Visits the entries in slot order, which is ascending for the dense keys only. */
+	@SuppressWarnings("unchecked")
+	private void forEachSlot(IntEntryConsumer<? super V> action) {
+		if (dense != null) {
+			for (int key = 0; key < DENSE_LIMIT; key++) {
+				if (dense[key] != null) {
+					action.accept(key, (V) dense[key]);
+				}
+			}
+		}
+		if (values != null) {
+			for (int slot = 0; slot < values.length; slot++) {
+				if (values[slot] != null) {
+					action.accept(keys[slot], (V) values[slot]);
+				}
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("{");
+		forEach((key, value) -> {
+			if (sb.length() > 1) {
+				sb.append(", ");
+			}
+			sb.append(key).append('=').append(value);
+		});
+		return sb.append('}').toString();
+	}
+
+	@SuppressWarnings("unchecked")
+	private V denseSlot(int key, V value) {
+		if (dense == null) {
+			dense = new Object[DENSE_LIMIT];
+		}
+		V previous = (V) dense[key];
+		dense[key] = value;
+		if (previous == null) {
+			denseCount++;
+		}
+		return previous;
+	}
+
+	@SuppressWarnings("unchecked")
+	private V sparseSlot(int key, V value) {
+		if (values == null) {
+			keys = new int[16];
+			values = new Object[16];
+		}
+		int slot = find(key);
+		V previous = (V) values[slot];
+		keys[slot] = key;
+		values[slot] = value;
+		if (previous == null && ++sparseCount * 2 > values.length) {
+			resize();
+		}
+		return previous;
+	}
+
+	/** Like sparseSlot(), but combines with an existing value in the same probe. */
+	@SuppressWarnings("unchecked")
+	private void mergeSparse(int key, V value, BinaryOperator<V> combiner) {
+		if (values == null) {
+			sparseSlot(key, value);
+			return;
+		}
+		int slot = find(key);
+		V existing = (V) values[slot];
+		if (existing == null) {
+			keys[slot] = key;
+			values[slot] = value;
+			if (++sparseCount * 2 > values.length) {
+				resize();
+			}
+		} else {
+			values[slot] = combine(existing, value, combiner);
+		}
+	}
+
+	private static <V> V combine(V existing, V value, BinaryOperator<V> combiner) {
+		if (existing == null) {
+			return value;
+		}
+		V combined = combiner.apply(existing, value);
+		if (combined == null) {
+			throw new NullPointerException("IntObjectMap does not accept null values");
+		}
+		return combined;
+	}
+
+	/** Slot holding key, or the empty slot where it would be inserted. */
+	private int find(int key) {
+		int mask = values.length - 1;
+		int slot = mix(key) & mask;
+		while (values[slot] != null && keys[slot] != key) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private void resize() {
+		int[] oldKeys = keys;
+		Object[] oldValues = values;
+		keys = new int[oldKeys.length * 2];
+		values = new Object[oldValues.length * 2];
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldValues[i] != null) {
+				int slot = find(oldKeys[i]);
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+
+	static int mix(int key) {
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
@@ -0,0 +1,345 @@
+package com.demo.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Sort by a chain of key extractors that pulls every key out once per element, instead of calling the
+ * getters (and boxing ints) on every comparison like Comparator.comparing(...).thenComparing(...).
+ *
+ * 		Comparator<Person> comparator = Comparator.comparing(Person::getName).thenComparing(Person::getAge);
+ * 		persons.sort(comparator);
+ *
+ * becomes
+ *
+ * 		KeySort<Person> sort = KeySort.comparing(Person::getName).thenComparingInt(Person::getAge);
+ * 		sort.sort(persons);
+ *
+ * Before sorting, the first key of every element is normalized into a long prefix that compares as an
+ * unsigned number: the first four chars of a String, or the sortable bits of an int/long. The other keys
+ * are stored in primitive columns. The sort itself is a stable merge sort of element indexes across the
+ * ForkJoin common pool, and most comparisons are decided by the prefix without touching the elements.
+ * Only prefix ties fall back to the full String or Comparable key. At the end the elements are placed in
+ * their sorted order.
+ *
+ * The order is the same as comparator() gives, which is the equivalent java.util.Comparator.
+ * */
+public final class KeySort<T> {
+
+	private enum Kind {
+		STRING, INT, LONG, OBJECT
+	}
+
+	/** Below this many elements a merge sort task doesn't fork. */
+	static final int SEQUENTIAL_CUTOFF = 1 << 13;
+
+	private static final int INSERTION_SORT_CUTOFF = 16;
+
+	private final List<Key<T>> keys;
+
+	private KeySort(List<Key<T>> keys) {
+		this.keys = keys;
+	}
+
+	public static <T> KeySort<T> comparing(Function<? super T, String> keyExtractor) {
+		return new KeySort<T>(new ArrayList<>()).then(new Key<>(Kind.STRING, keyExtractor, null, null));
+	}
+
+	public static <T> KeySort<T> comparingInt(ToIntFunction<? super T> keyExtractor) {
+		return new KeySort<T>(new ArrayList<>()).then(new Key<>(Kind.INT, null, keyExtractor, null));
+	}
+
+	public static <T> KeySort<T> comparingLong(ToLongFunction<? super T> keyExtractor) {
+		return new KeySort<T>(new ArrayList<>()).then(new Key<>(Kind.LONG, null, null, keyExtractor));
+	}
+
+	/** Any Comparable key. Ties on the prefix are compared with compareTo(). */
+	public static <T, U extends Comparable<? super U>> KeySort<T> comparingComparable(
+			Function<? super T, ? extends U> keyExtractor) {
+		return new KeySort<T>(new ArrayList<>()).then(new Key<>(Kind.OBJECT, keyExtractor, null, null));
+	}
+
+	public KeySort<T> thenComparing(Function<? super T, String> keyExtractor) {
+		return then(new Key<>(Kind.STRING, keyExtractor, null, null));
+	}
+
+	public KeySort<T> thenComparingInt(ToIntFunction<? super T> keyExtractor) {
+		return then(new Key<>(Kind.INT, null, keyExtractor, null));
+	}
+
+	public KeySort<T> thenComparingLong(ToLongFunction<? super T> keyExtractor) {
+		return then(new Key<>(Kind.LONG, null, null, keyExtractor));
+	}
+
+	public <U extends Comparable<? super U>> KeySort<T> thenComparingComparable(
+			Function<? super T, ? extends U> keyExtractor) {
+		return then(new Key<>(Kind.OBJECT, keyExtractor, null, null));
+	}
+
+	private KeySort<T> then(Key<T> key) {
+		List<Key<T>> chain = new ArrayList<>(keys);
+		chain.add(key);
+		return new KeySort<>(chain);
+	}
+
+	/** The java.util.Comparator that gives the same order. */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public Comparator<T> comparator() {
+		Comparator<T> comparator = null;
+		for (Key<T> key : keys) {
+			Comparator<T> next;
+			switch (key.kind) {
+			case INT:
+				next = Comparator.comparingInt(key.intKey);
+				break;
+			case LONG:
+				next = Comparator.comparingLong(key.longKey);
+				break;
+			default:
+				next = Comparator.comparing((Function) key.objectKey);
+			}
+			comparator = comparator == null ? next : comparator.thenComparing(next);
+		}
+		return comparator;
+	}
+
+	/** Sorts the list in place. */
+	public void sort(List<T> list) {
+		Object[] sorted = sortedArray(list);
+		ListIterator<T> iterator = list.listIterator();
+		for (Object element : sorted) {
+			iterator.next();
+			@SuppressWarnings("unchecked")
+			T t = (T) element;
+			iterator.set(t);
+		}
+	}
+
+	/** Returns a new sorted list. */
+	public List<T> sorted(Collection<? extends T> elements) {
+		@SuppressWarnings("unchecked")
+		List<T> list = (List<T>) Arrays.asList(sortedArray(elements));
+		return new ArrayList<>(list);
+	}
+
+	private Object[] sortedArray(Collection<? extends T> collection) {
+		Object[] elements = collection.toArray();
+		int n = elements.length;
+		if (n < 2) {
+			return elements;
+		}
+		Columns columns = new Columns(n, keys);
+		for (int i = 0; i < n; i++) {
+			@SuppressWarnings("unchecked")
+			T t = (T) elements[i];
+			columns.extract(i, t, keys);
+		}
+		int[] order = new int[n];
+		for (int i = 0; i < n; i++) {
+			order[i] = i;
+		}
+		int[] buffer = new int[n];
+		if (n <= SEQUENTIAL_CUTOFF || ForkJoinPool.getCommonPoolParallelism() < 2) {
+			mergeSort(order, buffer, 0, n, columns);
+		} else {
+			ForkJoinPool.commonPool().invoke(new SortTask(order, buffer, 0, n, columns));
+		}
+		Object[] result = new Object[n];
+		for (int i = 0; i < n; i++) {
+			result[i] = elements[order[i]];
+		}
+		return result;
+	}
+
+	static void mergeSort(int[] order, int[] buffer, int from, int to, Columns columns) {
+		if (to - from <= INSERTION_SORT_CUTOFF) {
+			insertionSort(order, from, to, columns);
+			return;
+		}
+		int mid = (from + to) >>> 1;
+		mergeSort(order, buffer, from, mid, columns);
+		mergeSort(order, buffer, mid, to, columns);
+		merge(order, buffer, from, mid, to, columns);
+	}
+
+	private static void insertionSort(int[] order, int from, int to, Columns columns) {
+		for (int i = from + 1; i < to; i++) {
+			int current = order[i];
+			int j = i - 1;
+			while (j >= from && columns.compare(order[j], current) > 0) {
+				order[j + 1] = order[j];
+				j--;
+			}
+			order[j + 1] = current;
+		}
+	}
+
+	private static void merge(int[] order, int[] buffer, int from, int mid, int to, Columns columns) {
+		if (columns.compare(order[mid - 1], order[mid]) <= 0) {
+			return;
+		}
+		System.arraycopy(order, from, buffer, from, to - from);
+		int i = from;
+		int j = mid;
+		int k = from;
+		while (i < mid && j < to) {
+			order[k++] = columns.compare(buffer[j], buffer[i]) < 0 ? buffer[j++] : buffer[i++];
+		}
+		while (i < mid) {
+			order[k++] = buffer[i++];
+		}
+		while (j < to) {
+			order[k++] = buffer[j++];
+		}
+	}
+
+	private static final class Key<T> {
+
+		final Kind kind;
+		final Function<? super T, ?> objectKey;
+		final ToIntFunction<? super T> intKey;
+		final ToLongFunction<? super T> longKey;
+
+		Key(Kind kind, Function<? super T, ?> objectKey, ToIntFunction<? super T> intKey,
+				ToLongFunction<? super T> longKey) {
+			this.kind = kind;
+			this.objectKey = objectKey;
+			this.intKey = intKey;
+			this.longKey = longKey;
+		}
+	}
+
+	/**
+	 * The extracted keys: the prefix of the first key, the full first key when the prefix may tie, and
+	 * one column per further key.
+	 * */
+	static final class Columns {
+
+		private final long[] prefixes;
+		private final Object[] firstKeys;
+		private final long[][] numericKeys;
+		private final Object[][] objectKeys;
+
+		Columns(int n, List<? extends Key<?>> keys) {
+			prefixes = new long[n];
+			Kind first = keys.get(0).kind;
+			firstKeys = first == Kind.STRING || first == Kind.OBJECT ? new Object[n] : null;
+			numericKeys = new long[keys.size()][];
+			objectKeys = new Object[keys.size()][];
+			for (int k = 1; k < keys.size(); k++) {
+				Kind kind = keys.get(k).kind;
+				if (kind == Kind.INT || kind == Kind.LONG) {
+					numericKeys[k] = new long[n];
+				} else {
+					objectKeys[k] = new Object[n];
+				}
+			}
+		}
+
+		<T> void extract(int i, T element, List<Key<T>> keys) {
+			Key<T> first = keys.get(0);
+			switch (first.kind) {
+			case STRING:
+				String s = (String) first.objectKey.apply(element);
+				firstKeys[i] = s;
+				prefixes[i] = stringPrefix(s);
+				break;
+			case OBJECT:
+				firstKeys[i] = first.objectKey.apply(element);
+				break;
+			case INT:
+				prefixes[i] = first.intKey.applyAsInt(element) ^ Long.MIN_VALUE;
+				break;
+			default:
+				prefixes[i] = first.longKey.applyAsLong(element) ^ Long.MIN_VALUE;
+			}
+			for (int k = 1; k < keys.size(); k++) {
+				Key<T> key = keys.get(k);
+				switch (key.kind) {
+				case INT:
+					numericKeys[k][i] = key.intKey.applyAsInt(element);
+					break;
+				case LONG:
+					numericKeys[k][i] = key.longKey.applyAsLong(element);
+					break;
+				default:
+					objectKeys[k][i] = key.objectKey.apply(element);
+				}
+			}
+		}
+
+		/** The first four UTF-16 chars, so unsigned order matches String.compareTo() unless they tie. */
+		static long stringPrefix(String s) {
+			long prefix = 0;
+			int length = Math.min(4, s.length());
+			for (int c = 0; c < length; c++) {
+				prefix |= (long) s.charAt(c) << (48 - 16 * c);
+			}
+			return prefix;
+		}
+
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		int compare(int a, int b) {
+			int c = Long.compareUnsigned(prefixes[a], prefixes[b]);
+			if (c != 0) {
+				return c;
+			}
+			if (firstKeys != null) {
+				c = ((Comparable) firstKeys[a]).compareTo(firstKeys[b]);
+				if (c != 0) {
+					return c;
+				}
+			}
+			for (int k = 1; k < numericKeys.length; k++) {
+				if (numericKeys[k] != null) {
+					c = Long.compare(numericKeys[k][a], numericKeys[k][b]);
+				} else {
+					c = ((Comparable) objectKeys[k][a]).compareTo(objectKeys[k][b]);
+				}
+				if (c != 0) {
+					return c;
+				}
+			}
+			return 0;
+		}
+	}
+
+	private static final class SortTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int[] order;
+		private final int[] buffer;
+		private final int from;
+		private final int to;
+		private final transient Columns columns;
+
+		SortTask(int[] order, int[] buffer, int from, int to, Columns columns) {
+			this.order = order;
+			this.buffer = buffer;
+			this.from = from;
+			this.to = to;
+			this.columns = columns;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= SEQUENTIAL_CUTOFF) {
+				mergeSort(order, buffer, from, to, columns);
+				return;
+			}
+			int mid = (from + to) >>> 1;
+			invokeAll(new SortTask(order, buffer, from, mid, columns), new SortTask(order, buffer, mid, to, columns));
+			merge(order, buffer, from, mid, to, columns);
+		}
+	}
+}
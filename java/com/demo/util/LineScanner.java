@@ -0,0 +1,209 @@
+package com.demo.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Finds lines at the start or the end of a file by reading it in blocks with positional FileChannel
+ * reads, instead of setting up a decoder and a line stream.
+ *
+ * 		Files.lines(path).filter(line -> !line.isEmpty()).findFirst()
+ *
+ * is the same as
+ *
+ * 		LineScanner.firstNonEmpty(path)
+ *
+ * which reads only the first block (or the first few when the file starts with many empty lines) and
+ * decodes only the line it returns. firstMatch() decodes the lines one by one until one matches, and
+ * lastLines()/lastMatch() read the blocks backwards from the end of the file, so the cost depends on
+ * the lines that are looked at, not on the size of the file.
+ *
+ * Lines end at '\n', with a '\r' before it removed, and a final '\n' doesn't add an empty last line.
+ * Unlike Files.lines(), a '\r' on its own doesn't end a line, and invalid UTF-8 is decoded to U+FFFD
+ * replacement characters instead of throwing MalformedInputException.
+ * */
+public final class LineScanner {
+
+	static final int BLOCK_SIZE = 8 * 1024;
+
+	private LineScanner() {
+	}
+
+	/** The first line that is not empty. */
+	public static Optional<String> firstNonEmpty(Path path) throws IOException {
+		return first(path, null);
+	}
+
+	/** The first line matching the predicate. */
+	public static Optional<String> firstMatch(Path path, Predicate<? super String> predicate) throws IOException {
+		return first(path, predicate);
+	}
+
+	/** The last n lines, in file order. */
+	public static List<String> lastLines(Path path, int n) throws IOException {
+		if (n < 0) {
+			throw new IllegalArgumentException("n must not be negative: " + n);
+		}
+		List<String> lines = new ArrayList<>(Math.min(n, 1024));
+		if (n > 0) {
+			backwards(path, line -> {
+				lines.add(line);
+				return lines.size() == n;
+			});
+		}
+		Collections.reverse(lines);
+		return lines;
+	}
+
+	/** The last line matching the predicate. */
+	public static Optional<String> lastMatch(Path path, Predicate<? super String> predicate) throws IOException {
+		String[] match = new String[1];
+		backwards(path, line -> {
+			if (predicate.test(line)) {
+				match[0] = line;
+				return true;
+			}
+			return false;
+		});
+		return Optional.ofNullable(match[0]);
+	}
+
+	/**
+	 * Reads forwards. With a null predicate it returns the first non-empty line and decodes nothing else.
+	 * */
+	private static Optional<String> first(Path path, Predicate<? super String> predicate) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			byte[] bytes = new byte[BLOCK_SIZE];
+			ByteBuffer buffer = ByteBuffer.wrap(bytes);
+			long position = 0;
+			int lineStart = 0;
+			int scanned = 0;
+			boolean eof = false;
+			while (!eof) {
+				int read = channel.read(buffer, position);
+				if (read < 0) {
+					eof = true;
+				} else {
+					position += read;
+				}
+				int length = buffer.position();
+				for (int i = scanned; i < length; i++) {
+					if (bytes[i] == '\n') {
+						String line = match(bytes, lineStart, i, predicate);
+						if (line != null) {
+							return Optional.of(line);
+						}
+						lineStart = i + 1;
+					}
+				}
+				scanned = length;
+				if (eof && lineStart < length) {
+					return Optional.ofNullable(match(bytes, lineStart, length, predicate));
+				}
+				//keep the partial line, growing the block when the line doesn't fit
+				if (lineStart > 0) {
+					System.arraycopy(bytes, lineStart, bytes, 0, length - lineStart);
+					scanned -= lineStart;
+					buffer.position(length - lineStart);
+					lineStart = 0;
+				} else if (!buffer.hasRemaining()) {
+					bytes = Arrays.copyOf(bytes, bytes.length * 2);
+					buffer = ByteBuffer.wrap(bytes).position(length);
+				}
+			}
+			return Optional.empty();
+		}
+	}
+
+	/** The line [start, end) if it matches, otherwise null. */
+	private static String match(byte[] bytes, int start, int end, Predicate<? super String> predicate) {
+		if (end > start && bytes[end - 1] == '\r') {
+			end--;
+		}
+		if (predicate == null) {
+			return end > start ? decode(bytes, start, end) : null;
+		}
+		String line = decode(bytes, start, end);
+		return predicate.test(line) ? line : null;
+	}
+
+	/**
+	 * Reads backwards from the end of the file and passes the lines, last first, to the visitor until
+	 * it returns true.
+	 * */
+	private static void backwards(Path path, Predicate<String> visitor) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long blockStart = channel.size();
+			if (blockStart == 0) {
+				return;
+			}
+			//blocks are read into data from the back; [start, end) is what has been read and not visited yet,
+			//the start of the line that continues past the last block read
+			byte[] data = new byte[2 * BLOCK_SIZE];
+			int start = data.length;
+			int end = data.length;
+			boolean skipFinalNewline = true;
+			while (blockStart > 0) {
+				int blockLength = (int) Math.min(BLOCK_SIZE, blockStart);
+				blockStart -= blockLength;
+				if (start < blockLength) {
+					//move the partial line to the end, growing data so a long line is copied O(log n) times
+					int carryLength = end - start;
+					byte[] moved = data;
+					if (carryLength + blockLength > data.length / 2) {
+						moved = new byte[Math.max(2 * data.length, 2 * (carryLength + blockLength))];
+					}
+					System.arraycopy(data, start, moved, moved.length - carryLength, carryLength);
+					data = moved;
+					end = data.length;
+					start = end - carryLength;
+				}
+				int blockEnd = start;
+				start -= blockLength;
+				ByteBuffer buffer = ByteBuffer.wrap(data, start, blockLength);
+				while (buffer.hasRemaining()) {
+					if (channel.read(buffer, blockStart + buffer.position() - start) < 0) {
+						throw new IOException("file shrank while it was read: " + path);
+					}
+				}
+				if (skipFinalNewline) {
+					skipFinalNewline = false;
+					if (data[end - 1] == '\n') {
+						end--;
+					}
+				}
+				//the bytes after the block hold no '\n', so only the block is searched
+				for (int i = Math.min(blockEnd, end) - 1; i >= start; i--) {
+					if (data[i] == '\n') {
+						if (visitor.test(line(data, i + 1, end))) {
+							return;
+						}
+						end = i;
+					}
+				}
+			}
+			visitor.test(line(data, start, end));
+		}
+	}
+
+	private static String line(byte[] bytes, int start, int end) {
+		if (end > start && bytes[end - 1] == '\r') {
+			end--;
+		}
+		return decode(bytes, start, end);
+	}
+
+	private static String decode(byte[] bytes, int start, int end) {
+		return new String(bytes, start, end - start, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,221 @@
+package com.demo.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+
+/**
+ * Finds the lines of a file that contain a literal, searching the mapped bytes in parallel.
+ *
+ * 		Files.lines(path).filter(line -> line.contains("ERROR"))
+ *
+ * decodes every line into a String to test it. The same search here
+ *
+ * 		LineSearch.literal("ERROR").lines(path)
+ *
+ * cuts the file into newline-aligned chunks (see FileChunks), maps every chunk and scans its bytes on a
+ * ForkJoin worker with Boyer-Moore-Horspool: on a mismatch the search skips ahead by up to the length of
+ * the literal, depending on the byte under the end of the window. Only the lines that contain a match
+ * are decoded, once each however many matches they have.
+ *
+ * literalIgnoreCase() matches ASCII letters in either case; other characters must match exactly.
+ * matches() returns the byte offset of each matching line too. Both return the lines in file order.
+ *
+ * Note: the literal and the file are compared as UTF-8 bytes, so a literal only matches text encoded
+ * the same way. Lines end at '\n' with a '\r' before it removed; unlike Files.lines(), a '\r' on its own
+ * doesn't end a line, and invalid UTF-8 in a matching line is decoded to U+FFFD instead of throwing.
+ * */
+public final class LineSearch {
+
+	/** A matching line and the byte offset where it starts. */
+	public static final class Match {
+
+		private final long offset;
+		private final String line;
+
+		Match(long offset, String line) {
+			this.offset = offset;
+			this.line = line;
+		}
+
+		public long offset() {
+			return offset;
+		}
+
+		public String line() {
+			return line;
+		}
+
+		@Override
+		public String toString() {
+			return offset + ": " + line;
+		}
+	}
+
+	private final byte[] pattern;
+	private final boolean ignoreCase;
+	private final int[] skip = new int[256];
+
+	private LineSearch(byte[] pattern, boolean ignoreCase) {
+		if (pattern.length == 0) {
+			throw new IllegalArgumentException("empty literal");
+		}
+		this.pattern = pattern;
+		this.ignoreCase = ignoreCase;
+		int last = pattern.length - 1;
+		Arrays.fill(skip, pattern.length);
+		for (int i = 0; i < last; i++) {
+			int b = pattern[i] & 0xff;
+			skip[b] = last - i;
+			if (ignoreCase) {
+				skip[otherCase(b)] = last - i;
+			}
+		}
+	}
+
+	public static LineSearch literal(String literal) {
+		return new LineSearch(literal.getBytes(StandardCharsets.UTF_8), false);
+	}
+
+	public static LineSearch literalIgnoreCase(String literal) {
+		byte[] pattern = literal.getBytes(StandardCharsets.UTF_8);
+		for (int i = 0; i < pattern.length; i++) {
+			pattern[i] = (byte) lowerCase(pattern[i] & 0xff);
+		}
+		return new LineSearch(pattern, true);
+	}
+
+	/** The matching lines in file order. */
+	public Stream<String> lines(Path path) throws IOException {
+		return matches(path).stream().map(Match::line);
+	}
+
+	public List<Match> matches(Path path) throws IOException {
+		return matches(path, ForkJoinPool.commonPool());
+	}
+
+	public List<Match> matches(Path path, ForkJoinPool pool) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long[] bounds = FileChunks.split(channel,
+					ParallelPersonLoader.defaultChunks(channel.size(), pool.getParallelism()));
+			try {
+				return pool.invoke(new SearchTask(channel, bounds, 0, bounds.length - 1));
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+		}
+	}
+
+	/** Searches [start, end) of the channel, mapping it in regions of at most MAX_REGION bytes. */
+	void searchRange(FileChannel channel, long start, long end, List<Match> matches) throws IOException {
+		long position = start;
+		while (position < end) {
+			MappedByteBuffer region = MappedPersonLoader.mapRegion(channel, position, end);
+			search(region, position, matches);
+			position += region.limit();
+		}
+	}
+
+	/** Boyer-Moore-Horspool over [0, limit) of a region that starts and ends on a line boundary. */
+	private void search(MappedByteBuffer region, long regionOffset, List<Match> matches) {
+		int limit = region.limit();
+		int last = pattern.length - 1;
+		byte[] scratch = new byte[128];
+		int i = 0;
+		while (i + last < limit) {
+			int b = region.get(i + last) & 0xff;
+			if (matchesAt(region, i)) {
+				int lineStart = i;
+				while (lineStart > 0 && region.get(lineStart - 1) != '\n') {
+					lineStart--;
+				}
+				int lineEnd = i + pattern.length;
+				while (lineEnd < limit && region.get(lineEnd) != '\n') {
+					lineEnd++;
+				}
+				int textEnd = lineEnd > lineStart && region.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+				if (scratch.length < textEnd - lineStart) {
+					scratch = new byte[textEnd - lineStart];
+				}
+				ByteBuffer line = region.duplicate();
+				line.position(lineStart);
+				line.get(scratch, 0, textEnd - lineStart);
+				matches.add(new Match(regionOffset + lineStart,
+						new String(scratch, 0, textEnd - lineStart, StandardCharsets.UTF_8)));
+				//one match per line: continue on the next line
+				i = lineEnd + 1;
+			} else {
+				i += skip[b];
+			}
+		}
+	}
+
+	private boolean matchesAt(MappedByteBuffer region, int at) {
+		for (int j = pattern.length - 1; j >= 0; j--) {
+			int b = region.get(at + j) & 0xff;
+			if ((ignoreCase ? lowerCase(b) : b) != (pattern[j] & 0xff)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int lowerCase(int b) {
+		return b >= 'A' && b <= 'Z' ? b + ('a' - 'A') : b;
+	}
+
+	private static int otherCase(int b) {
+		if (b >= 'a' && b <= 'z') {
+			return b - ('a' - 'A');
+		}
+		return lowerCase(b);
+	}
+
+	/** Splits the chunk index range in halves until a single chunk is left, like ParallelPersonLoader. */
+	private final class SearchTask extends RecursiveTask<List<Match>> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final transient FileChannel channel;
+		private final long[] bounds;
+		private final int from;
+		private final int to;
+
+		SearchTask(FileChannel channel, long[] bounds, int from, int to) {
+			this.channel = channel;
+			this.bounds = bounds;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected List<Match> compute() {
+			if (to - from > 1) {
+				int mid = (from + to) >>> 1;
+				SearchTask right = new SearchTask(channel, bounds, mid, to);
+				right.fork();
+				List<Match> matches = new SearchTask(channel, bounds, from, mid).compute();
+				matches.addAll(right.join());
+				return matches;
+			}
+			List<Match> matches = new ArrayList<>();
+			try {
+				searchRange(channel, bounds[from], bounds[from + 1], matches);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			return matches;
+		}
+	}
+}
@@ -0,0 +1,170 @@
+package com.demo.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A Spliterator<String> over the lines of a file that splits by byte range.
+ *
+ * Files.lines() and BufferedReader.lines() can only split off batches of lines that one thread has
+ * already read and decoded, so .parallel() on them does little. Here a split cuts the remaining byte
+ * range in half and moves the cut forward to the next line start (see FileChunks), so both halves are
+ * whole lines and every worker maps and decodes only its own range:
+ *
+ * 		try(Stream<String> lines = LineSpliterator.parallelLines(path)){
+ * 			Map<String, Long> countsByGender = lines.map(line -> line.split(" ")[2])
+ * 											   .collect(Collectors.groupingBy(g -> g, Collectors.counting()));
+ * 		}
+ *
+ * estimateSize() is the remaining bytes divided by the average line length of a sample taken from the
+ * start of the file, so splits report proportional sizes. The spliterator is not SIZED because the count
+ * is only an estimate. Ranges smaller than MIN_SPLIT_SIZE are not split.
+ *
+ * Lines end at '\n', with a '\r' before it removed, and a final '\n' doesn't add an empty line. Unlike
+ * Files.lines(), a '\r' on its own doesn't end a line, and invalid UTF-8 is decoded to U+FFFD replacement
+ * characters instead of throwing MalformedInputException. The stream must be closed to close the file.
+ * */
+public final class LineSpliterator implements Spliterator<String> {
+
+	/** Ranges smaller than this are not split further. */
+	static final long MIN_SPLIT_SIZE = 64 * 1024;
+
+	private static final int SAMPLE_SIZE = 8 * 1024;
+
+	private final FileChannel channel;
+	private final double bytesPerLine;
+	private long position;
+	private final long end;
+	private MappedByteBuffer region;
+	private long regionStart;
+	private byte[] scratch = new byte[128];
+
+	private LineSpliterator(FileChannel channel, long start, long end, double bytesPerLine) {
+		this.channel = channel;
+		this.position = start;
+		this.end = end;
+		this.bytesPerLine = bytesPerLine;
+	}
+
+	/** The lines of the file as a parallel stream. Close the stream to close the file. */
+	public static Stream<String> parallelLines(Path path) throws IOException {
+		return lines(path, true);
+	}
+
+	/** The lines of the file, as described above; parallel splits by byte range. */
+	public static Stream<String> lines(Path path, boolean parallel) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			long size = channel.size();
+			LineSpliterator spliterator = new LineSpliterator(channel, 0, size, bytesPerLine(channel, size));
+			return StreamSupport.stream(spliterator, parallel).onClose(() -> {
+				try {
+					channel.close();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/** Average bytes per line in the first SAMPLE_SIZE bytes, at least 1. */
+	static double bytesPerLine(FileChannel channel, long size) throws IOException {
+		ByteBuffer sample = ByteBuffer.allocate((int) Math.min(SAMPLE_SIZE, size));
+		while (sample.hasRemaining() && channel.read(sample, sample.position()) > 0) {
+		}
+		int lines = 0;
+		for (int i = 0; i < sample.position(); i++) {
+			if (sample.get(i) == '\n') {
+				lines++;
+			}
+		}
+		return lines == 0 ? Math.max(1, sample.position()) : (double) sample.position() / lines;
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super String> action) {
+		if (position >= end) {
+			return false;
+		}
+		action.accept(nextLine());
+		return true;
+	}
+
+	@Override
+	public void forEachRemaining(Consumer<? super String> action) {
+		while (position < end) {
+			action.accept(nextLine());
+		}
+	}
+
+	/** Decodes the line at position, mapping the next region when the current one is used up. */
+	private String nextLine() {
+		if (region == null || position >= regionStart + region.limit()) {
+			try {
+				region = MappedPersonLoader.mapRegion(channel, position, end);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			regionStart = position;
+		}
+		int start = (int) (position - regionStart);
+		int limit = region.limit();
+		int newline = start;
+		while (newline < limit && region.get(newline) != '\n') {
+			newline++;
+		}
+		position = regionStart + Math.min(limit, newline + 1);
+		int lineEnd = newline > start && region.get(newline - 1) == '\r' ? newline - 1 : newline;
+		int length = lineEnd - start;
+		if (scratch.length < length) {
+			scratch = new byte[Math.max(length, scratch.length * 2)];
+		}
+		ByteBuffer line = region.duplicate();
+		line.position(start);
+		line.get(scratch, 0, length);
+		return new String(scratch, 0, length, StandardCharsets.UTF_8);
+	}
+
+	/** Splits off the first half of the remaining range, cut at a line start. */
+	@Override
+	public Spliterator<String> trySplit() {
+		if (region != null || end - position < 2 * MIN_SPLIT_SIZE) {
+			return null;
+		}
+		long cut;
+		try {
+			cut = FileChunks.nextLineStart(channel, position + (end - position) / 2, end);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		if (cut <= position || cut >= end) {
+			return null;
+		}
+		LineSpliterator prefix = new LineSpliterator(channel, position, cut, bytesPerLine);
+		position = cut;
+		return prefix;
+	}
+
+	@Override
+	public long estimateSize() {
+		return (long) Math.ceil((end - position) / bytesPerLine);
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED | NONNULL | IMMUTABLE;
+	}
+}
@@ -0,0 +1,153 @@
+package com.demo.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.demo.domain.Person;
+
+/**
+ * Loads a persons file through FileChannel.map() instead of BufferedReader.lines().
+ *
+ * The file is mapped in regions of at most MAX_REGION bytes (a MappedByteBuffer is int indexed),
+ * every region ends on a line boundary, and the records are parsed straight from the mapped bytes
+ * with PersonRecordParser. Nothing is printed while loading.
+ *
+ * 		List<Person> persons = MappedPersonLoader.load(path);
+ *
+ * 		try(Stream<Person> stream = MappedPersonLoader.stream(path)){
+ * 			stream.filter(p -> p.getAge() > 20).forEach(...);
+ * 		}
+ *
+ * Note: like Files.lines() the stream holds an open channel, so it should be closed.
+ * */
+public final class MappedPersonLoader {
+
+	static final int MAX_REGION = Integer.MAX_VALUE - 8;
+
+	private MappedPersonLoader() {
+	}
+
+	public static List<Person> load(Path path) throws IOException {
+		List<Person> persons = new ArrayList<>();
+		try (Stream<Person> stream = stream(path)) {
+			stream.forEach(persons::add);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		return persons;
+	}
+
+	/**
+	 * Lazily parses the file one record at a time. Mapping errors after the stream is created are
+	 * thrown as UncheckedIOException, the same way Files.lines() reports them.
+	 * */
+	public static Stream<Person> stream(Path path) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			return StreamSupport.stream(new RecordSpliterator(channel), false)
+					.onClose(() -> {
+						try {
+							channel.close();
+						} catch (IOException e) {
+							throw new UncheckedIOException(e);
+						}
+					});
+		} catch (RuntimeException | Error e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Maps [position, position + MAX_REGION) and trims the region back to the last newline
+	 * unless it reaches the end of the file. The returned buffer's limit is the usable end.
+	 * */
+	static MappedByteBuffer mapRegion(FileChannel channel, long position, long size) throws IOException {
+		long length = Math.min(MAX_REGION, size - position);
+		MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+		if (position + length < size) {
+			int end = (int) length - 1;
+			while (end >= 0 && buffer.get(end) != '\n') {
+				end--;
+			}
+			if (end < 0) {
+				throw new IOException("Line longer than " + MAX_REGION + " bytes at offset " + position);
+			}
+			buffer.limit(end + 1);
+		}
+		return buffer;
+	}
+
+	/** Builds the Person the same way the text loaders do. */
+	static Person toPerson(String name, int age, byte gender) {
+		Person person = new Person(name, age);
+		person.setGender(PersonRecordParser.gender(gender));
+		return person;
+	}
+
+	private static final class RecordSpliterator extends Spliterators.AbstractSpliterator<Person> {
+
+		private final FileChannel channel;
+		private final byte[] scratch = new byte[64];
+		private long size = -1;
+		private long regionStart;
+		private MappedByteBuffer region;
+		private int pos;
+		private Person next;
+
+		RecordSpliterator(FileChannel channel) {
+			super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+			this.channel = channel;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super Person> action) {
+			try {
+				while (true) {
+					if (region == null || pos >= region.limit()) {
+						if (!nextRegion()) {
+							return false;
+						}
+					}
+					int result = PersonRecordParser.parseRecord(region, pos, region.limit(),
+							(buffer, nameStart, nameEnd, age, gender) -> next = toPerson(
+									PersonRecordParser.decode(buffer, nameStart, nameEnd, scratch), age, gender));
+					pos = Math.abs(result);
+					if (result > 0) {
+						Person person = next;
+						next = null;
+						action.accept(person);
+						return true;
+					}
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		private boolean nextRegion() throws IOException {
+			if (size < 0) {
+				size = channel.size();
+			} else if (region != null) {
+				regionStart += region.limit();
+			}
+			if (regionStart >= size) {
+				return false;
+			}
+			region = mapRegion(channel, regionStart, size);
+			pos = 0;
+			return true;
+		}
+	}
+}
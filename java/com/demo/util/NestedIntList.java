@@ -0,0 +1,232 @@
+package com.demo.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * An immutable list of int lists, the unboxed counterpart of List<List<Integer>>. All the elements are
+ * stored one list after another in a single int[], and offsets[i] is where list i starts.
+ *
+ * 		list.stream().flatMap(l -> l.stream()).mapToLong(Integer::longValue).sum()
+ *
+ * creates a stream per sublist and boxes every element, and in parallel it can only split between
+ * sublists, so one long sublist ends up on one thread. The same sum with
+ *
+ * 		NestedIntList nested = NestedIntList.of(list);
+ * 		nested.stream().parallel().asLongStream().sum()		//or nested.sum()
+ *
+ * streams the backing array directly, so it splits in halves by element count no matter where the
+ * sublists start and end. filter() and map() keep the sublists and produce one new array for all of them,
+ * and sum(list) and sums() read the array without creating anything per sublist.
+ * */
+public final class NestedIntList {
+
+	private final int[] values;
+	private final int[] offsets;
+
+	private NestedIntList(int[] values, int[] offsets) {
+		this.values = values;
+		this.offsets = offsets;
+	}
+
+	public static NestedIntList of(List<? extends List<Integer>> lists) {
+		int size = 0;
+		for (List<Integer> list : lists) {
+			size += list.size();
+		}
+		int[] values = new int[size];
+		int[] offsets = new int[lists.size() + 1];
+		int position = 0;
+		for (int i = 0; i < lists.size(); i++) {
+			offsets[i] = position;
+			for (Integer value : lists.get(i)) {
+				values[position++] = value;
+			}
+		}
+		offsets[lists.size()] = position;
+		return new NestedIntList(values, offsets);
+	}
+
+	public static NestedIntList of(int[]... lists) {
+		Builder builder = new Builder();
+		for (int[] list : lists) {
+			builder.addList(list);
+		}
+		return builder.build();
+	}
+
+	/** Number of sublists. */
+	public int lists() {
+		return offsets.length - 1;
+	}
+
+	/** Number of elements in all the sublists. */
+	public int size() {
+		return offsets[offsets.length - 1];
+	}
+
+	public int size(int list) {
+		return offsets[list + 1] - offsets[list];
+	}
+
+	public int get(int list, int index) {
+		if (index < 0 || index >= size(list)) {
+			throw new IndexOutOfBoundsException("index " + index + " in list " + list + " of size " + size(list));
+		}
+		return values[offsets[list] + index];
+	}
+
+	/** All the elements, sublist after sublist, as flatMap(l -> l.stream()) gives them. */
+	public IntStream stream() {
+		return StreamSupport.intStream(spliterator(), false);
+	}
+
+	/** The elements of one sublist. */
+	public IntStream stream(int list) {
+		return Arrays.stream(values, offsets[list], offsets[list + 1]);
+	}
+
+	/** Splits in halves by element count, across sublist boundaries. */
+	public Spliterator.OfInt spliterator() {
+		return Spliterators.spliterator(values, 0, size(), Spliterator.ORDERED | Spliterator.IMMUTABLE);
+	}
+
+	public long sum() {
+		return NumericReductions.parallelSum(values);
+	}
+
+	public long sum(int list) {
+		long sum = 0;
+		for (int i = offsets[list]; i < offsets[list + 1]; i++) {
+			sum += values[i];
+		}
+		return sum;
+	}
+
+	/** The sum of every sublist. */
+	public long[] sums() {
+		long[] sums = new long[lists()];
+		for (int list = 0; list < sums.length; list++) {
+			sums[list] = sum(list);
+		}
+		return sums;
+	}
+
+	/** Keeps the elements that match, in the same sublists; sublists may become empty. */
+	public NestedIntList filter(IntPredicate predicate) {
+		int[] filtered = new int[size()];
+		int[] newOffsets = new int[offsets.length];
+		int position = 0;
+		for (int list = 0; list < lists(); list++) {
+			newOffsets[list] = position;
+			for (int i = offsets[list]; i < offsets[list + 1]; i++) {
+				if (predicate.test(values[i])) {
+					filtered[position++] = values[i];
+				}
+			}
+		}
+		newOffsets[lists()] = position;
+		return new NestedIntList(position == filtered.length ? filtered : Arrays.copyOf(filtered, position), newOffsets);
+	}
+
+	/** Maps every element; the sublists stay the same and share the offsets. */
+	public NestedIntList map(IntUnaryOperator mapper) {
+		int[] mapped = new int[size()];
+		for (int i = 0; i < mapped.length; i++) {
+			mapped[i] = mapper.applyAsInt(values[i]);
+		}
+		return new NestedIntList(mapped, offsets);
+	}
+
+	/** All the elements in one array. */
+	public int[] toArray() {
+		return Arrays.copyOf(values, size());
+	}
+
+	public int[] toArray(int list) {
+		return Arrays.copyOfRange(values, offsets[list], offsets[list + 1]);
+	}
+
+	/** Boxes the lists back into a List<List<Integer>>. */
+	public List<List<Integer>> toLists() {
+		List<List<Integer>> lists = new ArrayList<>(lists());
+		for (int list = 0; list < lists(); list++) {
+			List<Integer> boxed = new ArrayList<>(size(list));
+			for (int i = offsets[list]; i < offsets[list + 1]; i++) {
+				boxed.add(values[i]);
+			}
+			lists.add(boxed);
+		}
+		return lists;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder s = new StringBuilder("[");
+		for (int list = 0; list < lists(); list++) {
+			if (list > 0) {
+				s.append(", ");
+			}
+			s.append('[');
+			for (int i = offsets[list]; i < offsets[list + 1]; i++) {
+				if (i > offsets[list]) {
+					s.append(", ");
+				}
+				s.append(values[i]);
+			}
+			s.append(']');
+		}
+		return s.append(']').toString();
+	}
+
+	/**
+	 * Appends elements to the current sublist; endList() closes it and starts the next one.
+	 * */
+	public static final class Builder {
+
+		private int[] values = new int[16];
+		private int[] offsets = new int[8];
+		private int size;
+		private int lists;
+
+		public Builder add(int value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+			return this;
+		}
+
+		public Builder endList() {
+			if (lists + 2 > offsets.length) {
+				offsets = Arrays.copyOf(offsets, offsets.length * 2);
+			}
+			offsets[++lists] = size;
+			return this;
+		}
+
+		public Builder addList(int... list) {
+			if (size + list.length > values.length) {
+				values = Arrays.copyOf(values, Math.max(size + list.length, values.length * 2));
+			}
+			System.arraycopy(list, 0, values, size, list.length);
+			size += list.length;
+			return endList();
+		}
+
+		/** The elements added after the last endList() form a last sublist. */
+		public NestedIntList build() {
+			if (offsets[lists] != size) {
+				endList();
+			}
+			return new NestedIntList(Arrays.copyOf(values, size), Arrays.copyOf(offsets, lists + 1));
+		}
+	}
+}
@@ -0,0 +1,248 @@
+package com.demo.util;
+
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * Unboxed reductions over int[] and long[] columns and primitive streams, for the shapes that
+ * ReductionDemo and NumbersDemo write as reduce(0, Integer::sum), reduce(Long::sum) or
+ * reduce(Integer::max) on Stream<Integer>/Stream<Long>, which box on every step.
+ *
+ * 		long total = NumericReductions.sum(ages);						//identity 0, widened to long
+ * 		int total = NumericReductions.sumExact(ages);					//ArithmeticException instead of wrapping
+ * 		OptionalInt max = NumericReductions.max(ages);					//empty for no values
+ * 		NumericSummary summary = NumericReductions.parallelSummarize(values);
+ * 		NumericSummary summary = NumericReductions.summarize(persons.stream().mapToInt(Person::getAge));
+ *
+ * The parallel variants split the array with fork/join down to a sequential cutoff of at least
+ * SEQUENTIAL_CUTOFF elements, and at least enough for four leaves per worker, so small arrays don't pay
+ * for task creation. Results are the same as the sequential variants, except that the compensated mean
+ * may differ in the last bits.
+ * */
+public final class NumericReductions {
+
+	/** Below this many elements a fork/join leaf runs a plain loop. */
+	static final int SEQUENTIAL_CUTOFF = 1 << 13;
+
+	private NumericReductions() {
+	}
+
+	/** Sum of the values as a long, which cannot overflow for fewer than 2^32 ints. */
+	public static long sum(int[] values) {
+		long sum = 0;
+		for (int value : values) {
+			sum += value;
+		}
+		return sum;
+	}
+
+	/** Sum as an int, throwing ArithmeticException when it doesn't fit, unlike reduce(0, Integer::sum). */
+	public static int sumExact(int[] values) {
+		return Math.toIntExact(sum(values));
+	}
+
+	/** Exact sum of the values, throwing ArithmeticException on overflow. */
+	public static long sumExact(long[] values) {
+		return summarize(values).sum();
+	}
+
+	public static OptionalInt min(int[] values) {
+		if (values.length == 0) {
+			return OptionalInt.empty();
+		}
+		int min = values[0];
+		for (int i = 1; i < values.length; i++) {
+			min = Math.min(min, values[i]);
+		}
+		return OptionalInt.of(min);
+	}
+
+	public static OptionalInt max(int[] values) {
+		if (values.length == 0) {
+			return OptionalInt.empty();
+		}
+		int max = values[0];
+		for (int i = 1; i < values.length; i++) {
+			max = Math.max(max, values[i]);
+		}
+		return OptionalInt.of(max);
+	}
+
+	public static OptionalLong min(long[] values) {
+		return summarize(values).min();
+	}
+
+	public static OptionalLong max(long[] values) {
+		return summarize(values).max();
+	}
+
+	public static NumericSummary summarize(int[] values) {
+		Accumulator accumulator = new Accumulator();
+		accumulator.acceptRange(values, 0, values.length);
+		return accumulator.toSummary();
+	}
+
+	public static NumericSummary summarize(long[] values) {
+		Accumulator accumulator = new Accumulator();
+		accumulator.acceptRange(values, 0, values.length);
+		return accumulator.toSummary();
+	}
+
+	public static NumericSummary parallelSummarize(int[] values) {
+		return ForkJoinPool.commonPool()
+				.invoke(new RangeTask(values, null, 0, values.length, cutoff(values.length))).toSummary();
+	}
+
+	public static NumericSummary parallelSummarize(long[] values) {
+		return ForkJoinPool.commonPool()
+				.invoke(new RangeTask(null, values, 0, values.length, cutoff(values.length))).toSummary();
+	}
+
+	/** Sum of the values computed with fork/join. */
+	public static long parallelSum(int[] values) {
+		return parallelSummarize(values).sum();
+	}
+
+	/** Reduces a primitive stream, sequential or parallel, without boxing. */
+	public static NumericSummary summarize(IntStream stream) {
+		return stream.collect(Accumulator::new, Accumulator::accept, Accumulator::combine).toSummary();
+	}
+
+	/** Reduces a primitive stream, sequential or parallel, without boxing. */
+	public static NumericSummary summarize(LongStream stream) {
+		return stream.collect(Accumulator::new, Accumulator::accept, Accumulator::combine).toSummary();
+	}
+
+	static int cutoff(int length) {
+		int leaves = ForkJoinPool.getCommonPoolParallelism() * 4;
+		return Math.max(SEQUENTIAL_CUTOFF, length / leaves);
+	}
+
+	/** Mutable state of a reduction, combined pairwise for parallel runs. */
+	static final class Accumulator {
+
+		private long count;
+		/** The sum wrapped to 64 bits; the exact sum is sum + carry * 2^64. */
+		private long sum;
+		private long carry;
+		private long min = Long.MAX_VALUE;
+		private long max = Long.MIN_VALUE;
+		private double compensatedSum;
+		private double compensation;
+
+		void accept(int value) {
+			accept((long) value);
+		}
+
+		void accept(long value) {
+			count++;
+			addExact(value);
+			min = Math.min(min, value);
+			max = Math.max(max, value);
+			addCompensated(value);
+		}
+
+		void acceptRange(int[] values, int from, int to) {
+			long s = 0;
+			int lo = Integer.MAX_VALUE;
+			int hi = Integer.MIN_VALUE;
+			for (int i = from; i < to; i++) {
+				int value = values[i];
+				s += value;
+				lo = Math.min(lo, value);
+				hi = Math.max(hi, value);
+			}
+			if (to > from) {
+				// an int range sums exactly in a long, so it is added to the other sums once per range
+				count += to - from;
+				addExact(s);
+				min = Math.min(min, lo);
+				max = Math.max(max, hi);
+				addCompensated(s);
+			}
+		}
+
+		void acceptRange(long[] values, int from, int to) {
+			for (int i = from; i < to; i++) {
+				accept(values[i]);
+			}
+		}
+
+		void combine(Accumulator other) {
+			count += other.count;
+			addExact(other.sum);
+			carry += other.carry;
+			min = Math.min(min, other.min);
+			max = Math.max(max, other.max);
+			addCompensated(other.compensatedSum);
+			addCompensated(-other.compensation);
+		}
+
+		NumericSummary toSummary() {
+			return new NumericSummary(count, sum, carry != 0, min, max, compensatedSum - compensation);
+		}
+
+		/**
+		 * Adds with wrap-around and counts the wraps, so an intermediate overflow that later additions
+		 * bring back into range is not reported, whatever order the values are added in.
+		 * */
+		private void addExact(long value) {
+			long result = sum + value;
+			if (((sum ^ result) & (value ^ result)) < 0) {
+				carry += value < 0 ? -1 : 1;
+			}
+			sum = result;
+		}
+
+		/** Kahan summation: compensation holds the low order bits lost by the last addition. */
+		private void addCompensated(double value) {
+			double y = value - compensation;
+			double t = compensatedSum + y;
+			compensation = (t - compensatedSum) - y;
+			compensatedSum = t;
+		}
+	}
+
+	private static final class RangeTask extends RecursiveTask<Accumulator> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int[] ints;
+		private final long[] longs;
+		private final int from;
+		private final int to;
+		private final int cutoff;
+
+		RangeTask(int[] ints, long[] longs, int from, int to, int cutoff) {
+			this.ints = ints;
+			this.longs = longs;
+			this.from = from;
+			this.to = to;
+			this.cutoff = cutoff;
+		}
+
+		@Override
+		protected Accumulator compute() {
+			if (to - from <= cutoff) {
+				Accumulator accumulator = new Accumulator();
+				if (ints != null) {
+					accumulator.acceptRange(ints, from, to);
+				} else {
+					accumulator.acceptRange(longs, from, to);
+				}
+				return accumulator;
+			}
+			int mid = (from + to) >>> 1;
+			RangeTask left = new RangeTask(ints, longs, from, mid, cutoff);
+			left.fork();
+			Accumulator right = new RangeTask(ints, longs, mid, to, cutoff).compute();
+			Accumulator result = left.join();
+			result.combine(right);
+			return result;
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package com.demo.util;
+
+import java.util.OptionalDouble;
+import java.util.OptionalLong;
+
+/**
+ * Result of a NumericReductions reduction: count, sum, min, max and mean of int or long values.
+ *
+ * The results follow the identity rules described in ReductionDemo:
+ * 		sum()			has the identity element 0, so the sum of no values is 0
+ * 		count()			is 0 for no values
+ * 		min()/max()		have no identity element, so they are empty for no values
+ * 		mean()			is empty for no values
+ *
+ * sum() is exact: when the long sum overflowed it throws an ArithmeticException, like Math.addExact(),
+ * instead of silently wrapping around. mean() is computed from a compensated (Kahan) sum of doubles, so
+ * it stays accurate even when the exact sum overflows.
+ * */
+public final class NumericSummary {
+
+	private final long count;
+	private final long sum;
+	private final boolean overflowed;
+	private final long min;
+	private final long max;
+	private final double compensatedSum;
+
+	NumericSummary(long count, long sum, boolean overflowed, long min, long max, double compensatedSum) {
+		this.count = count;
+		this.sum = sum;
+		this.overflowed = overflowed;
+		this.min = min;
+		this.max = max;
+		this.compensatedSum = compensatedSum;
+	}
+
+	public long count() {
+		return count;
+	}
+
+	/** The exact sum, 0 for no values. */
+	public long sum() {
+		if (overflowed) {
+			throw new ArithmeticException("long overflow");
+		}
+		return sum;
+	}
+
+	/** True when the exact sum does not fit in a long; sum() throws in that case. */
+	public boolean overflowed() {
+		return overflowed;
+	}
+
+	public OptionalLong min() {
+		return count == 0 ? OptionalLong.empty() : OptionalLong.of(min);
+	}
+
+	public OptionalLong max() {
+		return count == 0 ? OptionalLong.empty() : OptionalLong.of(max);
+	}
+
+	public OptionalDouble mean() {
+		return count == 0 ? OptionalDouble.empty() : OptionalDouble.of(compensatedSum / count);
+	}
+
+	@Override
+	public String toString() {
+		return "NumericSummary [count=" + count + ", sum=" + (overflowed ? "overflow" : String.valueOf(sum))
+				+ ", min=" + min() + ", max=" + max() + ", mean=" + mean() + "]";
+	}
+}
@@ -0,0 +1,175 @@
+package com.demo.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+import com.demo.domain.Person;
+
+/**
+ * Parallel ingest of a persons file.
+ *
+ * Wrapping reader.lines() in a parallel stream does not help much, because the underlying
+ * spliterator can only hand out batches of lines it has already read on one thread. This loader
+ * instead cuts the file into byte ranges aligned to newlines (see FileChunks), and every range is
+ * mapped and parsed on a ForkJoin worker with PersonRecordParser.
+ *
+ * 		List<Person> persons = ParallelPersonLoader.load(path);			//file order
+ * 		List<Person> persons = ParallelPersonLoader.load(path, false);	//any order, no waiting on slow chunks
+ *
+ * parseChunks() is the general form: every chunk gets its own visitor from the supplier, so the
+ * visitors don't need any synchronization, and the caller merges them afterwards.
+ * */
+public final class ParallelPersonLoader {
+
+	/** Chunks per worker thread, so a slow chunk doesn't leave the other workers idle. */
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	/** Files smaller than this are not worth splitting. */
+	private static final long MIN_CHUNK_SIZE = 1 << 20;
+
+	private ParallelPersonLoader() {
+	}
+
+	public static List<Person> load(Path path) throws IOException {
+		return load(path, true);
+	}
+
+	public static List<Person> load(Path path, boolean ordered) throws IOException {
+		List<PersonCollector> chunks = parseChunks(path, 0, ordered, PersonCollector::new, ForkJoinPool.commonPool());
+		int size = 0;
+		for (PersonCollector chunk : chunks) {
+			size += chunk.persons.size();
+		}
+		List<Person> persons = new ArrayList<>(size);
+		for (PersonCollector chunk : chunks) {
+			persons.addAll(chunk.persons);
+		}
+		return persons;
+	}
+
+	/**
+	 * Parses the file in parallel and returns one visitor per chunk. When ordered is true the
+	 * visitors are in file order, otherwise in the order the chunks completed.
+	 *
+	 * @param chunks number of byte ranges, or 0 to derive it from the pool parallelism and file size
+	 * */
+	public static <V extends PersonRecordParser.RecordVisitor> List<V> parseChunks(Path path, int chunks,
+			boolean ordered, Supplier<V> visitors, ForkJoinPool pool) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (chunks <= 0) {
+				chunks = defaultChunks(size, pool.getParallelism());
+			}
+			long[] bounds = FileChunks.split(channel, chunks);
+			int count = bounds.length - 1;
+			Object[] results = new Object[count];
+			Queue<V> completed = new ConcurrentLinkedQueue<>();
+			ChunkTask<V> task = new ChunkTask<>(channel, bounds, 0, count, visitors, results, ordered ? null : completed);
+			try {
+				pool.invoke(task);
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+			if (!ordered) {
+				return new ArrayList<>(completed);
+			}
+			@SuppressWarnings("unchecked")
+			List<V> inOrder = (List<V>) (List<?>) Arrays.asList(results);
+			return inOrder;
+		}
+	}
+
+	static int defaultChunks(long size, int parallelism) {
+		long bySize = Math.max(1, size / MIN_CHUNK_SIZE);
+		long byRegion = size / MappedPersonLoader.MAX_REGION + 1;
+		return (int) Math.max(byRegion, Math.min(bySize, (long) parallelism * CHUNKS_PER_THREAD));
+	}
+
+	/**
+	 * Parses [start, end) of the channel, mapping it in regions of at most MAX_REGION bytes.
+	 * */
+	static void parseRange(FileChannel channel, long start, long end, PersonRecordParser.RecordVisitor visitor)
+			throws IOException {
+		long position = start;
+		while (position < end) {
+			MappedByteBuffer region = MappedPersonLoader.mapRegion(channel, position, end);
+			PersonRecordParser.parse(region, 0, region.limit(), visitor);
+			position += region.limit();
+		}
+	}
+
+	/**
+	 * Splits the chunk index range in halves until a single chunk is left, so idle workers can
+	 * steal the larger halves.
+	 * */
+	private static final class ChunkTask<V extends PersonRecordParser.RecordVisitor> extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final transient FileChannel channel;
+		private final long[] bounds;
+		private final int from;
+		private final int to;
+		private final transient Supplier<V> visitors;
+		private final Object[] results;
+		private final transient Queue<V> completed;
+
+		ChunkTask(FileChannel channel, long[] bounds, int from, int to, Supplier<V> visitors, Object[] results,
+				Queue<V> completed) {
+			this.channel = channel;
+			this.bounds = bounds;
+			this.from = from;
+			this.to = to;
+			this.visitors = visitors;
+			this.results = results;
+			this.completed = completed;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > 1) {
+				int mid = (from + to) >>> 1;
+				invokeAll(new ChunkTask<>(channel, bounds, from, mid, visitors, results, completed),
+						new ChunkTask<>(channel, bounds, mid, to, visitors, results, completed));
+				return;
+			}
+			V visitor = visitors.get();
+			try {
+				parseRange(channel, bounds[from], bounds[from + 1], visitor);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			if (completed != null) {
+				completed.add(visitor);
+			} else {
+				results[from] = visitor;
+			}
+		}
+	}
+
+	/** Visitor that builds domain.Person objects for one chunk. */
+	static final class PersonCollector implements PersonRecordParser.RecordVisitor {
+
+		final List<Person> persons = new ArrayList<>();
+		private final byte[] scratch = new byte[64];
+
+		@Override
+		public void visit(ByteBuffer buffer, int nameStart, int nameEnd, int age, byte gender) {
+			persons.add(MappedPersonLoader.toPerson(PersonRecordParser.decode(buffer, nameStart, nameEnd, scratch),
+					age, gender));
+		}
+	}
+}
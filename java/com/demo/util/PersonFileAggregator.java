@@ -0,0 +1,235 @@
+package com.demo.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.demo.domain.Person;
+
+/**
+ * Follows a growing persons file and keeps the CollectorsReductionDemo aggregates up to date:
+ *
+ * 		youngest person older than minAge		filter(p -> p.getAge() > 20).min(comparing(Person::getAge))
+ * 		oldest person							max(comparing(Person::getAge))
+ * 		number of persons per age				groupingBy(Person::getAge, counting())
+ * 		sorted names per age					groupingBy(Person::getAge, mapping(Person::getName, toCollection(TreeSet::new)))
+ *
+ * Every poll() reads only the bytes appended since the last poll and parses the complete lines among
+ * them. Each new record costs O(1) for the min/max/count and O(log n) for the name set, so the current
+ * values are available at any moment without rescanning the history. Like the stream versions, ties
+ * keep the person seen first.
+ *
+ * A trailing line without '\n' is treated as still being written; pollToEnd() consumes it too, for
+ * files that are known to be complete. If the file shrinks it is assumed to be truncated or replaced,
+ * and the aggregates are rebuilt from the start. Lines that are not valid records are skipped and
+ * counted in malformed().
+ *
+ * 		PersonFileAggregator aggregator = new PersonFileAggregator(path, 20);
+ * 		aggregator.follow(scheduler, 1, TimeUnit.SECONDS);
+ * 		...
+ * 		aggregator.youngestOlderThanMinAge().ifPresent(System.out::println);
+ * */
+public final class PersonFileAggregator {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final Path path;
+	private final int minAge;
+	private final byte[] scratch = new byte[64];
+	private final PersonRecordParser.RecordVisitor visitor = this::accept;
+
+	private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+	private long offset;
+
+	private Person youngestOlderThanMinAge;
+	private Person oldest;
+	private IntCountMap countsByAge = new IntCountMap();
+	private IntObjectMap<TreeSet<String>> namesByAge = new IntObjectMap<>();
+	private long records;
+	private long malformed;
+	private RuntimeException lastError;
+
+	/**
+	 * @param minAge youngestOlderThanMinAge() only considers persons strictly older than this
+	 * */
+	public PersonFileAggregator(Path path, int minAge) {
+		this.path = path;
+		this.minAge = minAge;
+	}
+
+	/** Parses the complete lines appended since the last poll and returns the number of new records. */
+	public synchronized int poll() throws IOException {
+		return read(false);
+	}
+
+	/** Like poll(), but also consumes a last line that doesn't end with '\n'. */
+	public synchronized int pollToEnd() throws IOException {
+		return read(true);
+	}
+
+	/**
+	 * Polls the file periodically on the given scheduler. Cancel the returned future to stop following.
+	 * A failed poll doesn't stop the schedule: the error is kept in lastError() and the next poll tries
+	 * again from the same offset.
+	 * */
+	public ScheduledFuture<?> follow(ScheduledExecutorService scheduler, long period, TimeUnit unit) {
+		return scheduler.scheduleWithFixedDelay(() -> {
+			try {
+				poll();
+			} catch (IOException e) {
+				failed(new UncheckedIOException(e));
+			} catch (RuntimeException e) {
+				failed(e);
+			}
+		}, 0, period, unit);
+	}
+
+	private synchronized void failed(RuntimeException e) {
+		lastError = e;
+	}
+
+	/** The error of the last failed poll of follow(), if any. */
+	public synchronized Optional<RuntimeException> lastError() {
+		return Optional.ofNullable(lastError);
+	}
+
+	public synchronized Optional<Person> youngestOlderThanMinAge() {
+		return Optional.ofNullable(youngestOlderThanMinAge);
+	}
+
+	public synchronized Optional<Person> oldest() {
+		return Optional.ofNullable(oldest);
+	}
+
+	public synchronized long count(int age) {
+		return countsByAge.get(age);
+	}
+
+	/** A copy of the current counts per age. */
+	public synchronized IntCountMap countsByAge() {
+		return new IntCountMap().merge(countsByAge);
+	}
+
+	/** A copy of the sorted names of one age. */
+	public synchronized Set<String> names(int age) {
+		TreeSet<String> names = namesByAge.get(age);
+		return names == null ? Collections.emptySet() : Collections.unmodifiableSet(new TreeSet<>(names));
+	}
+
+	/** Total number of records aggregated so far. */
+	public synchronized long records() {
+		return records;
+	}
+
+	/** Number of lines that were skipped because they are not valid records. */
+	public synchronized long malformed() {
+		return malformed;
+	}
+
+	/** Number of bytes of the file consumed so far. */
+	public synchronized long offset() {
+		return offset;
+	}
+
+	private int read(boolean toEnd) throws IOException {
+		int added = 0;
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < offset) {
+				reset();
+			}
+			while (offset < size) {
+				buffer.clear();
+				int read = channel.read(buffer, offset);
+				if (read <= 0) {
+					break;
+				}
+				int end = read;
+				while (end > 0 && buffer.get(end - 1) != '\n') {
+					end--;
+				}
+				boolean last = offset + read >= size;
+				if (end == 0) {
+					if (last && toEnd) {
+						end = read;
+					} else if (read == buffer.capacity()) {
+						// a single line longer than the buffer
+						buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+						continue;
+					} else {
+						break;
+					}
+				} else if (last && toEnd) {
+					end = read;
+				}
+				added += parse(end);
+			}
+		}
+		return added;
+	}
+
+	/**
+	 * Parses the records in [0, end) of the buffer one at a time, moving offset past each one, so a record
+	 * is never aggregated twice. A malformed line is skipped and counted.
+	 * */
+	private int parse(int end) {
+		long blockStart = offset;
+		int added = 0;
+		int pos = 0;
+		while (pos < end) {
+			int next;
+			try {
+				next = PersonRecordParser.parseRecord(buffer, pos, end, visitor);
+				if (next < 0) {
+					next = -next;
+				} else {
+					added++;
+				}
+			} catch (IllegalArgumentException e) {
+				next = pos;
+				while (next < end && buffer.get(next) != '\n') {
+					next++;
+				}
+				next = Math.min(next + 1, end);
+				malformed++;
+			}
+			pos = next;
+			offset = blockStart + pos;
+		}
+		return added;
+	}
+
+	private void accept(ByteBuffer buffer, int nameStart, int nameEnd, int age, byte gender) {
+		String name = PersonRecordParser.decode(buffer, nameStart, nameEnd, scratch);
+		Person person = MappedPersonLoader.toPerson(name, age, gender);
+		if (age > minAge && (youngestOlderThanMinAge == null || age < youngestOlderThanMinAge.getAge())) {
+			youngestOlderThanMinAge = person;
+		}
+		if (oldest == null || age > oldest.getAge()) {
+			oldest = person;
+		}
+		countsByAge.increment(age);
+		namesByAge.computeIfAbsent(age, key -> new TreeSet<>()).add(name);
+		records++;
+	}
+
+	private void reset() {
+		offset = 0;
+		youngestOlderThanMinAge = null;
+		oldest = null;
+		countsByAge = new IntCountMap();
+		namesByAge = new IntObjectMap<>();
+		records = 0;
+		malformed = 0;
+	}
+}
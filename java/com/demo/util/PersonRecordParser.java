@@ -0,0 +1,142 @@
+package com.demo.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Byte level parser for the persons text format, one record per line:
+ *
+ * 		Sarah 15 F
+ *
+ * Instead of line.split(" ") and Integer.parseInt() the parser walks the bytes of a ByteBuffer
+ * (usually a memory mapped file), so no String is created for the line itself. The name is handed
+ * to the visitor as a byte range and the age is accumulated straight from the digits.
+ *
+ * Blank lines are skipped, '\r' before '\n' is ignored and the gender column is optional
+ * (it is reported as 0 when missing). A record without age digits, with an age that doesn't fit in an
+ * int or with a gender of more than one character or outside ASCII throws IllegalArgumentException,
+ * since the byte parsed result would differ from the line.split(" ") result of PersonUtil.getPersons().
+ * */
+public final class PersonRecordParser {
+
+	/** Receives every parsed record. nameStart/nameEnd are absolute indexes into the buffer. */
+	@FunctionalInterface
+	public interface RecordVisitor {
+		void visit(ByteBuffer buffer, int nameStart, int nameEnd, int age, byte gender);
+	}
+
+	private PersonRecordParser() {
+	}
+
+	/**
+	 * Parses all records in [start, end) and returns the number of records visited.
+	 * */
+	public static int parse(ByteBuffer buffer, int start, int end, RecordVisitor visitor) {
+		int count = 0;
+		int pos = start;
+		while (pos < end) {
+			int next = parseRecord(buffer, pos, end, visitor);
+			if (next < 0) {
+				next = -next;
+			} else {
+				count++;
+			}
+			pos = next;
+		}
+		return count;
+	}
+
+	/**
+	 * Parses a single line starting at pos. Returns the index of the next line, negated
+	 * when the line was blank and nothing was visited.
+	 * */
+	public static int parseRecord(ByteBuffer buffer, int pos, int end, RecordVisitor visitor) {
+		int i = skipBlanks(buffer, pos, end);
+		if (i >= end || buffer.get(i) == '\n') {
+			return -Math.min(i + 1, end);
+		}
+		int nameStart = i;
+		while (i < end && !isSeparator(buffer.get(i))) {
+			i++;
+		}
+		int nameEnd = i;
+		i = skipBlanks(buffer, i, end);
+
+		int age = 0;
+		int digitsStart = i;
+		byte b;
+		while (i < end && (b = buffer.get(i)) >= '0' && b <= '9') {
+			int digit = b - '0';
+			if (age > (Integer.MAX_VALUE - digit) / 10) {
+				throw new IllegalArgumentException("Age out of range in person record at byte " + nameStart);
+			}
+			age = age * 10 + digit;
+			i++;
+		}
+		if (i == digitsStart) {
+			throw new IllegalArgumentException("Malformed person record at byte " + nameStart);
+		}
+		i = skipBlanks(buffer, i, end);
+
+		byte gender = 0;
+		if (i < end && buffer.get(i) != '\n') {
+			gender = buffer.get(i++);
+			if (i < end && !isSeparator(buffer.get(i))) {
+				throw new IllegalArgumentException("Gender longer than one character in person record at byte " + nameStart);
+			}
+			if (gender < 0) {
+				throw new IllegalArgumentException("Gender not ASCII in person record at byte " + nameStart);
+			}
+		}
+		while (i < end && buffer.get(i) != '\n') {
+			i++;
+		}
+		visitor.visit(buffer, nameStart, nameEnd, age, gender);
+		return Math.min(i + 1, end);
+	}
+
+	/**
+	 * Decodes a name range. The scratch array is reused between calls when it is big enough.
+	 * */
+	public static String decode(ByteBuffer buffer, int start, int end, byte[] scratch) {
+		int length = end - start;
+		byte[] bytes = scratch != null && scratch.length >= length ? scratch : new byte[length];
+		for (int i = 0; i < length; i++) {
+			bytes[i] = buffer.get(start + i);
+		}
+		return new String(bytes, 0, length, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Maps the gender byte to the same shared strings the text loaders produce, so the
+	 * common values are not allocated per record. Bytes outside ASCII are not a character on their
+	 * own in UTF-8 and throw IllegalArgumentException.
+	 * */
+	public static String gender(byte gender) {
+		switch (gender) {
+		case 0:
+			return null;
+		case 'M':
+			return "M";
+		case 'F':
+			return "F";
+		default:
+			if (gender < 0) {
+				throw new IllegalArgumentException("Gender byte is not ASCII: 0x" + Integer.toHexString(gender & 0xFF));
+			}
+			return String.valueOf((char) gender);
+		}
+	}
+
+	private static int skipBlanks(ByteBuffer buffer, int i, int end) {
+		byte b;
+		while (i < end && ((b = buffer.get(i)) == ' ' || b == '\t' || b == '\r')) {
+			i++;
+		}
+		return i;
+	}
+
+	private static boolean isSeparator(byte b) {
+		return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+	}
+}
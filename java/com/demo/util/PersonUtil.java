@@ -2,6 +2,7 @@ package com.demo.util;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Stream;
@@ -11,6 +12,11 @@ import com.demo.streams.CollectorsReductionDemo;
 
 public class PersonUtil {
 
+	/** Prints the records of getPersons(); created on first use and shared by all calls. */
+	private static final class Output {
+		static final AsyncOutputSink<Person> SINK = AsyncOutputSink.toSystemOut();
+	}
+
 	public static List<Person> getPersons() {
 		List<Person> persons = new ArrayList<>();
 		
@@ -20,17 +26,43 @@ public class PersonUtil {
 				
 				Stream<String> stream= reader.lines();
 		){
+			//prints the records in batches on a background thread instead of one println per record
+			AsyncOutputSink<Person> out = Output.SINK;
 			stream.map(line -> {
 				String[] s = line.split(" ");
 				Person p = new Person(s[0].trim(),Integer.parseInt(s[1]));
 				p.setGender(s[2].trim());
 				persons.add(p);
 				return p;
-			}).forEach(System.out::println);;
+			}).forEach(out);
+			out.flush();
 		}catch(IOException ie) {
 			System.out.println(ie);
 		}
 		return persons;
 	}
 
+	/**
+	 * Loads a persons file through a memory mapped, byte level parser. Unlike getPersons()
+	 * it does not create a String per line and does not print the records.
+	 * */
+	public static List<Person> getPersons(Path path) throws IOException {
+		return MappedPersonLoader.load(path);
+	}
+
+	/**
+	 * Loads a persons file by parsing newline aligned chunks on ForkJoin workers.
+	 * The returned list keeps the file order.
+	 * */
+	public static List<Person> getPersonsParallel(Path path) throws IOException {
+		return ParallelPersonLoader.load(path);
+	}
+
+	/**
+	 * Lazily streams the records of a persons file. The stream should be closed after use.
+	 * */
+	public static Stream<Person> streamPersons(Path path) throws IOException {
+		return MappedPersonLoader.stream(path);
+	}
+
 }
@@ -0,0 +1,252 @@
+package com.demo.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+/**
+ * Builds and/or/negate trees of predicates and compiles them into a flat Predicate<T>.
+ *
+ * p1.and(p2.or(p3)) on java.util.function.Predicate nests a lambda in a lambda for every operator,
+ * which the JIT stops inlining after a few levels. The same expression written with PredicateBuilder
+ *
+ * 		PredicateBuilder<String> p1 = PredicateBuilder.of(s -> s.length() > 2);
+ * 		PredicateBuilder<String> p2 = PredicateBuilder.isEqual("two");
+ * 		PredicateBuilder<String> p3 = PredicateBuilder.isEqual("three");
+ * 		stream.filter(p1.and(p2.or(p3)).build())
+ *
+ * is compiled as follows:
+ * 		1)nested and()s and or()s are flattened into one node with many terms, and double negations cancel out
+ * 		2)all isEqual() terms of one or() collapse into a single HashSet membership test
+ * 		3)the terms of every and()/or() are reordered at runtime, so the terms that most often decide the
+ * 		  result (false for and, true for or) are tested first
+ *
+ * The result is a plain Predicate<T> that can be passed to Stream.filter().
+ *
+ * Note: because of 3) the terms must not have side effects or depend on the order they are tested in.
+ * The statistics are sampled and kept per thread, so a parallel stream doesn't contend on them; each
+ * thread reorders from what it has seen, which only affects the order of the terms, never the result.
+ * */
+public final class PredicateBuilder<T> {
+
+	private enum Kind {
+		TERM, EQUAL, AND, OR, NOT
+	}
+
+	/** Number of tests between two reorderings of an and()/or() node, per thread. */
+	static final int REORDER_INTERVAL = 1 << 12;
+
+	/** One test in this many updates the statistics. A power of two. */
+	static final int SAMPLE_RATE = 1 << 4;
+
+	private final Kind kind;
+	private final Predicate<? super T> predicate;
+	private final Object value;
+	private final List<PredicateBuilder<T>> children;
+
+	private PredicateBuilder(Kind kind, Predicate<? super T> predicate, Object value, List<PredicateBuilder<T>> children) {
+		this.kind = kind;
+		this.predicate = predicate;
+		this.value = value;
+		this.children = children;
+	}
+
+	public static <T> PredicateBuilder<T> of(Predicate<? super T> predicate) {
+		return new PredicateBuilder<>(Kind.TERM, Objects.requireNonNull(predicate), null, Collections.emptyList());
+	}
+
+	/** Same test as Predicate.isEqual(value). */
+	public static <T> PredicateBuilder<T> isEqual(Object value) {
+		return new PredicateBuilder<>(Kind.EQUAL, null, value, Collections.emptyList());
+	}
+
+	/** True when the tested object equals any of the values. */
+	@SafeVarargs
+	public static <T> PredicateBuilder<T> anyOf(T... values) {
+		List<PredicateBuilder<T>> terms = new ArrayList<>(values.length);
+		for (T value : values) {
+			terms.add(isEqual(value));
+		}
+		return new PredicateBuilder<>(Kind.OR, null, null, terms);
+	}
+
+	public PredicateBuilder<T> and(PredicateBuilder<T> other) {
+		return junction(Kind.AND, other);
+	}
+
+	public PredicateBuilder<T> or(PredicateBuilder<T> other) {
+		return junction(Kind.OR, other);
+	}
+
+	public PredicateBuilder<T> negate() {
+		if (kind == Kind.NOT) {
+			return children.get(0);
+		}
+		return new PredicateBuilder<>(Kind.NOT, null, null, Collections.singletonList(this));
+	}
+
+	public Predicate<T> build() {
+		return compile(this);
+	}
+
+	private PredicateBuilder<T> junction(Kind junction, PredicateBuilder<T> other) {
+		List<PredicateBuilder<T>> terms = new ArrayList<>();
+		flatten(junction, this, terms);
+		flatten(junction, other, terms);
+		return new PredicateBuilder<>(junction, null, null, terms);
+	}
+
+	private static <T> void flatten(Kind junction, PredicateBuilder<T> node, List<PredicateBuilder<T>> terms) {
+		if (node.kind == junction) {
+			terms.addAll(node.children);
+		} else {
+			terms.add(node);
+		}
+	}
+
+	private static <T> Predicate<T> compile(PredicateBuilder<T> node) {
+		switch (node.kind) {
+		case TERM:
+			@SuppressWarnings("unchecked")
+			Predicate<T> term = (Predicate<T>) node.predicate;
+			return term;
+		case EQUAL:
+			return equalTo(node.value);
+		case NOT:
+			return compile(node.children.get(0)).negate();
+		default:
+			return compileJunction(node);
+		}
+	}
+
+	private static <T> Predicate<T> compileJunction(PredicateBuilder<T> node) {
+		boolean and = node.kind == Kind.AND;
+		List<Predicate<? super T>> terms = new ArrayList<>();
+		Set<Object> values = new HashSet<>();
+		for (PredicateBuilder<T> child : node.children) {
+			if (!and && child.kind == Kind.EQUAL) {
+				values.add(child.value);
+			} else {
+				terms.add(compile(child));
+			}
+		}
+		if (values.size() == 1) {
+			terms.add(equalTo(values.iterator().next()));
+		} else if (!values.isEmpty()) {
+			terms.add(values::contains);
+		}
+		if (terms.size() == 1) {
+			@SuppressWarnings("unchecked")
+			Predicate<T> single = (Predicate<T>) terms.get(0);
+			return single;
+		}
+		return new AdaptiveJunction<>(and, terms);
+	}
+
+	private static <T> Predicate<T> equalTo(Object value) {
+		return value == null ? Objects::isNull : value::equals;
+	}
+
+	/**
+	 * An and()/or() over a flat array of terms that moves the terms that decide the result most often
+	 * to the front. One test in SAMPLE_RATE is counted, in statistics of the testing thread, so parallel
+	 * streams don't all write the same counters. Each thread counts down to its next sample; the gap is
+	 * drawn at random only when a sample is taken, so the samples don't follow a period in the data. After REORDER_INTERVAL / SAMPLE_RATE counted tests a thread
+	 * publishes a new order from its statistics and halves them, so the order follows changes in the data.
+	 * */
+	private static final class AdaptiveJunction<T> implements Predicate<T> {
+
+		private final boolean and;
+		private final ThreadLocal<Statistics> statistics;
+		private volatile Term<T>[] order;
+
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		AdaptiveJunction(boolean and, List<Predicate<? super T>> predicates) {
+			this.and = and;
+			Term<T>[] terms = new Term[predicates.size()];
+			for (int i = 0; i < terms.length; i++) {
+				terms[i] = new Term<>(predicates.get(i), i);
+			}
+			this.order = terms;
+			this.statistics = ThreadLocal.withInitial(() -> new Statistics(terms.length));
+		}
+
+		@Override
+		public boolean test(T t) {
+			Term<T>[] terms = order;
+			Statistics counts = statistics.get();
+			if (--counts.countdown == 0) {
+				counts.countdown = 1 + ThreadLocalRandom.current().nextInt(2 * SAMPLE_RATE - 1);
+				return testCounted(terms, counts, t);
+			}
+			for (Term<T> term : terms) {
+				if (term.predicate.test(t) != and) {
+					return !and;
+				}
+			}
+			return and;
+		}
+
+		private boolean testCounted(Term<T>[] terms, Statistics counts, T t) {
+			boolean result = and;
+			for (Term<T> term : terms) {
+				counts.tested[term.index]++;
+				if (term.predicate.test(t) != and) {
+					counts.decided[term.index]++;
+					result = !and;
+					break;
+				}
+			}
+			if (++counts.samples >= REORDER_INTERVAL / SAMPLE_RATE) {
+				reorder(terms, counts);
+			}
+			return result;
+		}
+
+		private void reorder(Term<T>[] current, Statistics counts) {
+			counts.samples = 0;
+			double[] rates = new double[current.length];
+			for (int i = 0; i < rates.length; i++) {
+				rates[i] = (counts.decided[i] + 1.0) / (counts.tested[i] + 2.0);
+				counts.tested[i] >>= 1;
+				counts.decided[i] >>= 1;
+			}
+			Term<T>[] reordered = current.clone();
+			Arrays.sort(reordered, (a, b) -> Double.compare(rates[b.index], rates[a.index]));
+			order = reordered;
+		}
+	}
+
+	private static final class Term<T> {
+
+		final Predicate<? super T> predicate;
+		/** Position of the term in the junction as built, where its statistics are kept. */
+		final int index;
+
+		Term(Predicate<? super T> predicate, int index) {
+			this.predicate = predicate;
+			this.index = index;
+		}
+	}
+
+	/** The counts of one thread, indexed by Term.index. */
+	private static final class Statistics {
+
+		final long[] tested;
+		final long[] decided;
+		int samples;
+		/** Tests left until the next counted one. */
+		int countdown = SAMPLE_RATE;
+
+		Statistics(int terms) {
+			this.tested = new long[terms];
+			this.decided = new long[terms];
+		}
+	}
+}
@@ -0,0 +1,413 @@
+package com.demo.util;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+/**
+ * A StringJoiner that writes the prefix, the elements, the separators and the suffix straight to an
+ * Appendable, a Writer or a WritableByteChannel instead of building one String.
+ *
+ * 		String csv = values.stream().collect(Collectors.joining(","));
+ * 		writer.write(csv);
+ *
+ * holds the whole result in a StringBuilder that is copied every time it grows, then copies it once
+ * more into a String. The same export here
+ *
+ * 		try(StreamingJoiner joiner = StreamingJoiner.to(writer, ",")){
+ * 			values.stream().forEachOrdered(joiner::add);
+ * 		}
+ *
+ * only ever holds a buffer of 8K chars, for sequential and parallel streams alike. The buffer (and for
+ * a channel the encoder and the byte buffer) is allocated once and reused for the whole join. The size hint of to(Appendable, ...) is
+ * given to a StringBuilder target as its capacity, so it doesn't grow while joining.
+ *
+ * 		try(StreamingJoiner joiner = StreamingJoiner.to(channel, ", ", "{", "}")){
+ * 			joiner.add("one").add("two").add("three");			//{one, two, three}
+ * 		}
+ *
+ * Like StringJoiner, a joiner without elements writes prefix + suffix. close() writes the suffix and
+ * flushes, but doesn't close the target.
+ *
+ * The joining() collectors can't write as the elements arrive: a parallel stream accumulates every part
+ * of the stream into its own container, and only the combiner knows their order. So they hold the whole
+ * result in memory, in blocks of at most 8K chars (smaller when a size hint says so). Combining two parts
+ * links their blocks instead of copying the text, and the finisher writes the blocks in order with one
+ * joiner. Unlike Collectors.joining() nothing is copied to grow a StringBuilder or to build a String,
+ * but to hold only one buffer use to(...) with forEachOrdered() as above.
+ *
+ * Note: I/O errors are thrown as UncheckedIOException, so add() can be used in lambdas.
+ * */
+public final class StreamingJoiner implements AutoCloseable {
+
+	static final int DEFAULT_BUFFER_SIZE = 8 * 1024;
+
+	/** Where the buffered chars go. write() consumes the chars it writes and may leave some for later. */
+	private interface Sink {
+		void write(CharBuffer chars) throws IOException;
+
+		default void finish(CharBuffer chars) throws IOException {
+			write(chars);
+		}
+	}
+
+	private final Sink sink;
+	private final Object target;
+	private final String separator;
+	private final String prefix;
+	private final String suffix;
+	private final CharBuffer buffer;
+	private boolean started;
+	private boolean closed;
+	private long elements;
+	private long length;
+
+	private StreamingJoiner(Sink sink, Object target, CharSequence separator, CharSequence prefix,
+			CharSequence suffix, int bufferSize) {
+		this.sink = sink;
+		this.target = target;
+		this.separator = separator.toString();
+		this.prefix = prefix.toString();
+		this.suffix = suffix.toString();
+		this.buffer = CharBuffer.allocate(bufferSize);
+	}
+
+	public static StreamingJoiner to(Appendable out, CharSequence separator) {
+		return to(out, separator, "", "", 0);
+	}
+
+	/**
+	 * @param sizeHint the expected length of the result; a StringBuilder target is made that big up
+	 * front. 0 if unknown.
+	 * */
+	public static StreamingJoiner to(Appendable out, CharSequence separator, CharSequence prefix,
+			CharSequence suffix, int sizeHint) {
+		if (out instanceof StringBuilder && sizeHint > 0) {
+			((StringBuilder) out).ensureCapacity(sizeHint);
+		}
+		if (out instanceof Writer) {
+			Writer writer = (Writer) out;
+			return new StreamingJoiner(chars -> {
+				writer.write(chars.array(), chars.position(), chars.remaining());
+				chars.position(chars.limit());
+			}, out, separator, prefix, suffix, bufferSize(sizeHint));
+		}
+		return new StreamingJoiner(chars -> {
+			out.append(chars);
+			chars.position(chars.limit());
+		}, out, separator, prefix, suffix, bufferSize(sizeHint));
+	}
+
+	public static StreamingJoiner to(WritableByteChannel channel, CharSequence separator, CharSequence prefix,
+			CharSequence suffix) {
+		return to(channel, StandardCharsets.UTF_8, separator, prefix, suffix, 0);
+	}
+
+	public static StreamingJoiner to(WritableByteChannel channel, Charset charset, CharSequence separator,
+			CharSequence prefix, CharSequence suffix, int sizeHint) {
+		int bufferSize = bufferSize(sizeHint);
+		return new StreamingJoiner(new ChannelSink(channel, charset, bufferSize), channel, separator, prefix, suffix,
+				bufferSize);
+	}
+
+	/** No bigger buffer than the whole result needs, and none bigger than the default. */
+	private static int bufferSize(int sizeHint) {
+		return sizeHint > 0 ? Math.max(16, Math.min(sizeHint, DEFAULT_BUFFER_SIZE)) : DEFAULT_BUFFER_SIZE;
+	}
+
+	/**
+	 * Like Collectors.joining(separator), but writes to out when the stream is done. The result is the
+	 * number of chars written. Works for parallel streams too.
+	 * */
+	public static Collector<CharSequence, ?, Long> joining(Appendable out, CharSequence separator) {
+		return joining(separator, 0, () -> to(out, separator));
+	}
+
+	public static Collector<CharSequence, ?, Long> joining(Appendable out, CharSequence separator,
+			CharSequence prefix, CharSequence suffix) {
+		return joining(out, separator, prefix, suffix, 0);
+	}
+
+	/**
+	 * @param sizeHint the expected length of the result, used like in to(Appendable, ...) and to size the
+	 * blocks the elements are collected in. 0 if unknown.
+	 * */
+	public static Collector<CharSequence, ?, Long> joining(Appendable out, CharSequence separator,
+			CharSequence prefix, CharSequence suffix, int sizeHint) {
+		return joining(separator, sizeHint, () -> to(out, separator, prefix, suffix, sizeHint));
+	}
+
+	public static Collector<CharSequence, ?, Long> joining(WritableByteChannel channel, CharSequence separator,
+			CharSequence prefix, CharSequence suffix) {
+		return joining(channel, StandardCharsets.UTF_8, separator, prefix, suffix, 0);
+	}
+
+	public static Collector<CharSequence, ?, Long> joining(WritableByteChannel channel, Charset charset,
+			CharSequence separator, CharSequence prefix, CharSequence suffix, int sizeHint) {
+		return joining(separator, sizeHint, () -> to(channel, charset, separator, prefix, suffix, sizeHint));
+	}
+
+	/** Parts are collected in blocks and linked in encounter order; only the finisher creates a joiner. */
+	private static Collector<CharSequence, ?, Long> joining(CharSequence separator, int sizeHint,
+			Supplier<StreamingJoiner> joiners) {
+		String sep = separator.toString();
+		int blockSize = bufferSize(sizeHint);
+		BiConsumer<Part, CharSequence> accumulator = Part::add;
+		BinaryOperator<Part> combiner = Part::append;
+		Function<Part, Long> finisher = part -> {
+			StreamingJoiner joiner = joiners.get();
+			part.writeTo(joiner);
+			joiner.close();
+			return joiner.length();
+		};
+		return Collector.of(() -> new Part(sep, blockSize), accumulator, combiner, finisher);
+	}
+
+	/**
+	 * The elements of one part of the stream, joined with the separator into fixed-size blocks. Appending
+	 * another part links its blocks after these, so no text is copied after it is first added.
+	 * */
+	private static final class Part {
+
+		private final String separator;
+		private final int blockSize;
+		/** Full blocks and the last one, each with its position at the end of its chars. */
+		private final List<CharBuffer> blocks = new ArrayList<>();
+		private long elements;
+
+		Part(String separator, int blockSize) {
+			this.separator = separator;
+			this.blockSize = blockSize;
+		}
+
+		void add(CharSequence element) {
+			if (elements > 0) {
+				put(separator);
+			}
+			put(element == null ? "null" : element);
+			elements++;
+		}
+
+		Part append(Part other) {
+			if (other.elements > 0) {
+				if (elements > 0) {
+					put(separator);
+				}
+				blocks.addAll(other.blocks);
+				elements += other.elements;
+			}
+			return this;
+		}
+
+		private void put(CharSequence chars) {
+			int length = chars.length();
+			int from = 0;
+			while (from < length) {
+				CharBuffer block = blocks.isEmpty() ? null : blocks.get(blocks.size() - 1);
+				if (block == null || !block.hasRemaining()) {
+					block = CharBuffer.allocate(blockSize);
+					blocks.add(block);
+				}
+				int n = Math.min(block.remaining(), length - from);
+				if (chars instanceof String) {
+					block.put((String) chars, from, from + n);
+				} else {
+					for (int i = from; i < from + n; i++) {
+						block.put(chars.charAt(i));
+					}
+				}
+				from += n;
+			}
+		}
+
+		void writeTo(StreamingJoiner joiner) {
+			if (elements == 0) {
+				return;
+			}
+			joiner.startElement();
+			for (CharBuffer block : blocks) {
+				joiner.append(block.array(), block.arrayOffset(), block.arrayOffset() + block.position());
+			}
+			joiner.elements += elements;
+		}
+	}
+
+	public StreamingJoiner add(CharSequence element) {
+		startElement();
+		append(element == null ? "null" : element);
+		elements++;
+		return this;
+	}
+
+	/** Writes the prefix before the first element and the separator before the others. */
+	private void startElement() {
+		if (closed) {
+			throw new IllegalStateException("joiner is closed");
+		}
+		if (started) {
+			append(separator);
+		} else {
+			started = true;
+			append(prefix);
+		}
+	}
+
+	/** Number of elements added. */
+	public long elements() {
+		return elements;
+	}
+
+	/** Chars written so far, or in total after close(); the prefix and suffix included. */
+	public long length() {
+		return length;
+	}
+
+	/** Writes the buffered chars and flushes the target if it is Flushable. */
+	public void flush() {
+		try {
+			drain();
+			if (target instanceof Flushable) {
+				((Flushable) target).flush();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/** Writes the suffix (and the prefix if nothing was added) and flushes. Doesn't close the target. */
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		if (!started) {
+			started = true;
+			append(prefix);
+		}
+		append(suffix);
+		closed = true;
+		try {
+			buffer.flip();
+			sink.finish(buffer);
+			buffer.clear();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		flush();
+	}
+
+	private void append(CharSequence chars) {
+		int length = chars.length();
+		this.length += length;
+		try {
+			int from = 0;
+			while (from < length) {
+				if (!buffer.hasRemaining()) {
+					drain();
+				}
+				int n = Math.min(buffer.remaining(), length - from);
+				if (chars instanceof String) {
+					buffer.put((String) chars, from, from + n);
+				} else if (chars instanceof StringBuilder) {
+					((StringBuilder) chars).getChars(from, from + n, buffer.array(), buffer.arrayOffset() + buffer.position());
+					buffer.position(buffer.position() + n);
+				} else {
+					for (int i = from; i < from + n; i++) {
+						buffer.put(chars.charAt(i));
+					}
+				}
+				from += n;
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void append(char[] chars, int from, int to) {
+		length += to - from;
+		try {
+			while (from < to) {
+				if (!buffer.hasRemaining()) {
+					drain();
+				}
+				int n = Math.min(buffer.remaining(), to - from);
+				buffer.put(chars, from, n);
+				from += n;
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void drain() throws IOException {
+		buffer.flip();
+		if (buffer.hasRemaining()) {
+			sink.write(buffer);
+		}
+		buffer.compact();
+	}
+
+	/**
+	 * Encodes into one reused ByteBuffer and writes it to the channel whenever it fills up. A high
+	 * surrogate at the end of the chars is left in the buffer until its low surrogate arrives.
+	 * */
+	private static final class ChannelSink implements Sink {
+
+		private final WritableByteChannel channel;
+		private final CharsetEncoder encoder;
+		private final ByteBuffer bytes;
+
+		ChannelSink(WritableByteChannel channel, Charset charset, int bufferSize) {
+			this.channel = channel;
+			this.encoder = charset.newEncoder()
+					.onMalformedInput(CodingErrorAction.REPLACE)
+					.onUnmappableCharacter(CodingErrorAction.REPLACE);
+			this.bytes = ByteBuffer.allocate((int) Math.ceil(bufferSize * (double) encoder.maxBytesPerChar()));
+		}
+
+		@Override
+		public void write(CharBuffer chars) throws IOException {
+			encode(chars, false);
+		}
+
+		@Override
+		public void finish(CharBuffer chars) throws IOException {
+			encode(chars, true);
+			while (encoder.flush(bytes).isOverflow()) {
+				writeBytes();
+			}
+			writeBytes();
+			encoder.reset();
+		}
+
+		private void encode(CharBuffer chars, boolean endOfInput) throws IOException {
+			while (encoder.encode(chars, bytes, endOfInput).isOverflow()) {
+				writeBytes();
+			}
+			writeBytes();
+		}
+
+		private void writeBytes() throws IOException {
+			bytes.flip();
+			while (bytes.hasRemaining()) {
+				channel.write(bytes);
+			}
+			bytes.clear();
+		}
+	}
+}
@@ -0,0 +1,444 @@
+package com.demo.util;
+
+import java.nio.CharBuffer;
+import java.util.Locale;
+
+/**
+ * Case mapping, trimming and tokenizing that work on char[], byte[] and CharBuffer in place, without
+ * boxing characters or creating a String per step.
+ *
+ * 		greeting.chars().mapToObj(letter -> (char)letter).map(Character::toUpperCase).forEach(System.out::print);
+ *
+ * boxes every char and prints them one by one. The same result with
+ *
+ * 		System.out.println(TextTransforms.toUpperCase(greeting));
+ *
+ * is one pass over the chars into one new String, or no new String at all when nothing changes.
+ *
+ * Every transform has three paths:
+ * 		1)ASCII: chars below 0x80 are mapped with a comparison and an addition
+ * 		2)Latin-1: chars below 0x100 are mapped with a 256 entry table
+ * 		3)anything else falls back to the Unicode mappings of Character (for char[], byte[] and CharBuffer)
+ * 		  or String (for the String methods)
+ *
+ * The String methods give the same result as String.toUpperCase(Locale.ROOT) and
+ * String.toLowerCase(Locale.ROOT), including mappings that change the length like the German sharp s to
+ * "SS". The in-place methods can't change the length, so they use the one-to-one mappings of
+ * Character.toUpperCase(int) and Character.toLowerCase(int), which leave the sharp s alone.
+ *
+ * foldCase() maps a char to lower case after upper case, so all the case variants of a name, like
+ * "tulasi", "Tulasi" and "TULASI", fold to the same key before grouping:
+ *
+ * 		String[] keys = TextTransforms.foldCase(names);		//one scratch array for the whole column
+ *
+ * Note: the byte[] methods handle Latin-1 (ISO-8859-1) text, and their Ascii variants handle UTF-8, where
+ * only ASCII letters are changed and the bytes of multi-byte sequences, which are all 0x80 or above, are
+ * left as they are.
+ * */
+public final class TextTransforms {
+
+	/** Receives the [start, end) bounds of a token. */
+	@FunctionalInterface
+	public interface TokenVisitor {
+		void visit(int start, int end);
+	}
+
+	private static final char[] UPPER = new char[256];
+	private static final char[] LOWER = new char[256];
+	private static final char[] FOLD = new char[256];
+	private static final boolean[] WHITESPACE = new boolean[256];
+
+	/** The sharp s, which String.toUpperCase() maps to "SS". */
+	private static final char SHARP_S = '\u00df';
+
+	static {
+		for (char c = 0; c < 256; c++) {
+			UPPER[c] = Character.toUpperCase(c);
+			LOWER[c] = Character.toLowerCase(c);
+			FOLD[c] = Character.toLowerCase(Character.toUpperCase(c));
+			WHITESPACE[c] = Character.isWhitespace(c) || Character.isSpaceChar(c);
+		}
+	}
+
+	private TextTransforms() {
+	}
+
+	// ---- String ----
+
+	public static String toUpperCase(String s) {
+		return map(s, UPPER, 0, null);
+	}
+
+	public static String toLowerCase(String s) {
+		return map(s, LOWER, 1, null);
+	}
+
+	public static String foldCase(String s) {
+		return map(s, FOLD, 2, null);
+	}
+
+	/**
+	 * Returns s itself when no char changes. Uses the table while all chars are Latin-1 and have a
+	 * single char mapping, and the String methods for everything else. The mapped chars go to scratch
+	 * when it is big enough.
+	 * */
+	private static String map(String s, char[] table, int mode, char[] scratch) {
+		int length = s.length();
+		int i = 0;
+		while (i < length) {
+			char c = s.charAt(i);
+			if (c >= 256 || c == SHARP_S && mode != 1) {
+				return fallback(s, mode);
+			}
+			if (table[c] != c) {
+				break;
+			}
+			i++;
+		}
+		if (i == length) {
+			return s;
+		}
+		char[] chars = scratch != null && scratch.length >= length ? scratch : new char[length];
+		s.getChars(0, i, chars, 0);
+		for (; i < length; i++) {
+			char c = s.charAt(i);
+			if (c >= 256 || c == SHARP_S && mode != 1) {
+				return fallback(s, mode);
+			}
+			chars[i] = table[c];
+		}
+		return new String(chars, 0, length);
+	}
+
+	private static String fallback(String s, int mode) {
+		switch (mode) {
+		case 0:
+			return s.toUpperCase(Locale.ROOT);
+		case 1:
+			return s.toLowerCase(Locale.ROOT);
+		default:
+			return s.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+		}
+	}
+
+	// ---- columns ----
+
+	/** foldCase(String) over a whole column of names, reusing the unchanged Strings and one scratch array. */
+	public static String[] foldCase(String[] column) {
+		return map(column, FOLD, 2);
+	}
+
+	public static String[] toUpperCase(String[] column) {
+		return map(column, UPPER, 0);
+	}
+
+	public static String[] toLowerCase(String[] column) {
+		return map(column, LOWER, 1);
+	}
+
+	private static String[] map(String[] column, char[] table, int mode) {
+		String[] mapped = new String[column.length];
+		char[] scratch = new char[64];
+		for (int i = 0; i < column.length; i++) {
+			String s = column[i];
+			if (s == null) {
+				continue;
+			}
+			if (scratch.length < s.length()) {
+				scratch = new char[Math.max(s.length(), scratch.length * 2)];
+			}
+			mapped[i] = map(s, table, mode, scratch);
+		}
+		return mapped;
+	}
+
+	/** Trims a whole column of names, reusing the Strings that have nothing to trim. */
+	public static String[] trim(String[] column) {
+		String[] trimmed = new String[column.length];
+		for (int i = 0; i < column.length; i++) {
+			trimmed[i] = column[i] == null ? null : column[i].trim();
+		}
+		return trimmed;
+	}
+
+	// ---- char[] ----
+
+	/** Upper-cases [from, to) in place and returns whether anything changed. */
+	public static boolean toUpperCase(char[] chars, int from, int to) {
+		return map(chars, from, to, UPPER, 0);
+	}
+
+	public static boolean toLowerCase(char[] chars, int from, int to) {
+		return map(chars, from, to, LOWER, 1);
+	}
+
+	public static boolean foldCase(char[] chars, int from, int to) {
+		return map(chars, from, to, FOLD, 2);
+	}
+
+	private static boolean map(char[] chars, int from, int to, char[] table, int mode) {
+		boolean changed = false;
+		int i = from;
+		while (i < to) {
+			char c = chars[i];
+			if (c < 0x80) {
+				char mapped = ascii(c, mode);
+				if (mapped != c) {
+					chars[i] = mapped;
+					changed = true;
+				}
+				i++;
+			} else if (c < 256) {
+				if (table[c] != c) {
+					chars[i] = table[c];
+					changed = true;
+				}
+				i++;
+			} else {
+				int codePoint = Character.codePointAt(chars, i, to);
+				int mapped = unicode(codePoint, mode);
+				int count = Character.charCount(codePoint);
+				if (mapped != codePoint && Character.charCount(mapped) == count) {
+					Character.toChars(mapped, chars, i);
+					changed = true;
+				}
+				i += count;
+			}
+		}
+		return changed;
+	}
+
+	private static char ascii(char c, int mode) {
+		if (mode == 0) {
+			return c >= 'a' && c <= 'z' ? (char) (c - ('a' - 'A')) : c;
+		}
+		return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+	}
+
+	private static int unicode(int codePoint, int mode) {
+		switch (mode) {
+		case 0:
+			return Character.toUpperCase(codePoint);
+		case 1:
+			return Character.toLowerCase(codePoint);
+		default:
+			return Character.toLowerCase(Character.toUpperCase(codePoint));
+		}
+	}
+
+	/** First index in [from, to) that is not whitespace (a char <= ' ', like String.trim()), or to. */
+	public static int trimStart(char[] chars, int from, int to) {
+		while (from < to && chars[from] <= ' ') {
+			from++;
+		}
+		return from;
+	}
+
+	/** One past the last index in [from, to) that is not whitespace, or from. */
+	public static int trimEnd(char[] chars, int from, int to) {
+		while (to > from && chars[to - 1] <= ' ') {
+			to--;
+		}
+		return to;
+	}
+
+	/**
+	 * Passes the bounds of every whitespace separated token in [from, to) to the visitor and returns
+	 * the number of tokens. Latin-1 chars are looked up in a table, other chars are tested with
+	 * Character.isWhitespace() and Character.isSpaceChar().
+	 * */
+	public static int tokenize(char[] chars, int from, int to, TokenVisitor visitor) {
+		int tokens = 0;
+		int i = from;
+		while (i < to) {
+			while (i < to && isWhitespace(chars[i])) {
+				i++;
+			}
+			int start = i;
+			while (i < to && !isWhitespace(chars[i])) {
+				i++;
+			}
+			if (i > start) {
+				visitor.visit(start, i);
+				tokens++;
+			}
+		}
+		return tokens;
+	}
+
+	/** Passes the bounds of every token separated by delimiter, empty tokens included. */
+	public static int tokenize(char[] chars, int from, int to, char delimiter, TokenVisitor visitor) {
+		int tokens = 0;
+		int start = from;
+		for (int i = from; i < to; i++) {
+			if (chars[i] == delimiter) {
+				visitor.visit(start, i);
+				tokens++;
+				start = i + 1;
+			}
+		}
+		visitor.visit(start, to);
+		return tokens + 1;
+	}
+
+	private static boolean isWhitespace(char c) {
+		return c < 256 ? WHITESPACE[c] : Character.isWhitespace(c) || Character.isSpaceChar(c);
+	}
+
+	// ---- CharBuffer ----
+
+	/** Upper-cases [position, limit) of the buffer in place. The position and limit don't change. */
+	public static boolean toUpperCase(CharBuffer buffer) {
+		return map(buffer, UPPER, 0);
+	}
+
+	public static boolean toLowerCase(CharBuffer buffer) {
+		return map(buffer, LOWER, 1);
+	}
+
+	public static boolean foldCase(CharBuffer buffer) {
+		return map(buffer, FOLD, 2);
+	}
+
+	private static boolean map(CharBuffer buffer, char[] table, int mode) {
+		if (buffer.hasArray()) {
+			int offset = buffer.arrayOffset();
+			return map(buffer.array(), offset + buffer.position(), offset + buffer.limit(), table, mode);
+		}
+		// same rules as the char[] variant, with absolute gets and puts
+		boolean changed = false;
+		int limit = buffer.limit();
+		int i = buffer.position();
+		while (i < limit) {
+			char c = buffer.get(i);
+			if (c < 256) {
+				if (table[c] != c) {
+					buffer.put(i, table[c]);
+					changed = true;
+				}
+				i++;
+				continue;
+			}
+			int codePoint = c;
+			if (Character.isHighSurrogate(c) && i + 1 < limit && Character.isLowSurrogate(buffer.get(i + 1))) {
+				codePoint = Character.toCodePoint(c, buffer.get(i + 1));
+			}
+			int mapped = unicode(codePoint, mode);
+			int count = Character.charCount(codePoint);
+			if (mapped != codePoint && Character.charCount(mapped) == count) {
+				if (count == 1) {
+					buffer.put(i, (char) mapped);
+				} else {
+					buffer.put(i, Character.highSurrogate(mapped));
+					buffer.put(i + 1, Character.lowSurrogate(mapped));
+				}
+				changed = true;
+			}
+			i += count;
+		}
+		return changed;
+	}
+
+	/** Moves the position and limit of the buffer inside the leading and trailing whitespace. */
+	public static CharBuffer trim(CharBuffer buffer) {
+		int start = buffer.position();
+		int end = buffer.limit();
+		while (start < end && buffer.get(start) <= ' ') {
+			start++;
+		}
+		while (end > start && buffer.get(end - 1) <= ' ') {
+			end--;
+		}
+		buffer.limit(end);
+		buffer.position(start);
+		return buffer;
+	}
+
+	// ---- byte[] ----
+
+	/** Upper-cases Latin-1 bytes in place; the few chars whose upper case is not Latin-1 are left alone. */
+	public static boolean toUpperCaseLatin1(byte[] bytes, int from, int to) {
+		return mapLatin1(bytes, from, to, UPPER);
+	}
+
+	public static boolean toLowerCaseLatin1(byte[] bytes, int from, int to) {
+		return mapLatin1(bytes, from, to, LOWER);
+	}
+
+	public static boolean foldCaseLatin1(byte[] bytes, int from, int to) {
+		return mapLatin1(bytes, from, to, FOLD);
+	}
+
+	private static boolean mapLatin1(byte[] bytes, int from, int to, char[] table) {
+		boolean changed = false;
+		for (int i = from; i < to; i++) {
+			int b = bytes[i] & 0xff;
+			char mapped = table[b];
+			if (mapped != b && mapped < 256) {
+				bytes[i] = (byte) mapped;
+				changed = true;
+			}
+		}
+		return changed;
+	}
+
+	/** Upper-cases the ASCII letters of ASCII or UTF-8 bytes in place. */
+	public static boolean toUpperCaseAscii(byte[] bytes, int from, int to) {
+		boolean changed = false;
+		for (int i = from; i < to; i++) {
+			byte b = bytes[i];
+			if (b >= 'a' && b <= 'z') {
+				bytes[i] = (byte) (b - ('a' - 'A'));
+				changed = true;
+			}
+		}
+		return changed;
+	}
+
+	/** Lower-cases (which for ASCII is also case folding) the ASCII letters of ASCII or UTF-8 bytes in place. */
+	public static boolean toLowerCaseAscii(byte[] bytes, int from, int to) {
+		boolean changed = false;
+		for (int i = from; i < to; i++) {
+			byte b = bytes[i];
+			if (b >= 'A' && b <= 'Z') {
+				bytes[i] = (byte) (b + ('a' - 'A'));
+				changed = true;
+			}
+		}
+		return changed;
+	}
+
+	public static int trimStart(byte[] bytes, int from, int to) {
+		while (from < to && (bytes[from] & 0xff) <= ' ') {
+			from++;
+		}
+		return from;
+	}
+
+	public static int trimEnd(byte[] bytes, int from, int to) {
+		while (to > from && (bytes[to - 1] & 0xff) <= ' ') {
+			to--;
+		}
+		return to;
+	}
+
+	/** Tokens separated by ASCII whitespace in ASCII, Latin-1 or UTF-8 bytes. */
+	public static int tokenize(byte[] bytes, int from, int to, TokenVisitor visitor) {
+		int tokens = 0;
+		int i = from;
+		while (i < to) {
+			while (i < to && (bytes[i] & 0xff) <= ' ') {
+				i++;
+			}
+			int start = i;
+			while (i < to && (bytes[i] & 0xff) > ' ') {
+				i++;
+			}
+			if (i > start) {
+				visitor.visit(start, i);
+				tokens++;
+			}
+		}
+		return tokens;
+	}
+}